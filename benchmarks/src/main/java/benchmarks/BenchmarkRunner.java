@@ -0,0 +1,31 @@
+package benchmarks;
+
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.CommandLineOptionException;
+import org.openjdk.jmh.runner.options.CommandLineOptions;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Project: lambda-tricks
+ */
+public class BenchmarkRunner {
+
+	/**
+	 * Runs the benchmarks with the GC profiler always enabled: next to the time of each benchmark, JMH reports the
+	 * allocation rate (<code>gc.alloc.rate.norm</code> is the number of bytes allocated per operation) and the number
+	 * and time of the garbage collections.
+	 *
+	 * @param args the usual JMH command line options, as an example <code>WordCount -p size=1000</code>
+	 */
+	public static void main(String[] args) throws RunnerException, CommandLineOptionException {
+		final Options options = new OptionsBuilder()
+				.parent(new CommandLineOptions(args))
+				.addProfiler(GCProfiler.class)
+				.build();
+
+		new Runner(options).run();
+	}
+}
@@ -0,0 +1,98 @@
+package benchmarks;
+
+import java.util.SplittableRandom;
+
+/**
+ * Project: lambda-tricks
+ * <p>
+ * Generator of the input texts of the benchmarks. The words are drawn from a fixed vocabulary with a Zipf
+ * distribution: with a skew of 0 all the words have the same probability, with a skew of 1 or more few words (like
+ * "the" in a real text) are most of the text. As in the sentences of the examples, some words start with an uppercase
+ * letter and some are followed by a comma or a period.
+ */
+final class Corpus {
+
+	static final int VOCABULARY_SIZE = 10_000;
+
+	/**
+	 * The most frequent words are the stopwords used by the examples.
+	 */
+	static final String[] STOPWORDS = {"the", "is", "on", "a", "it", "of", "this"};
+
+	private static final String LETTERS = "abcdefghijklmnopqrstuvwxyz";
+
+	private Corpus() {
+	}
+
+	/**
+	 * @param words number of words of the text
+	 * @param skew  exponent of the Zipf distribution
+	 * @param seed  seed of the random generator
+	 * @param sep   separator between two words
+	 * @return a new text
+	 */
+	static String text(int words, double skew, long seed, String sep) {
+		final SplittableRandom r = new SplittableRandom(seed);
+		final String[] vocabulary = vocabulary(r);
+
+		// Cumulative distribution of the ranks
+		final double[] cdf = new double[VOCABULARY_SIZE];
+		double total = 0.0;
+		for (int i = 0; i < VOCABULARY_SIZE; i++) {
+			total += 1.0 / Math.pow(i + 1, skew);
+			cdf[i] = total;
+		}
+
+		final StringBuilder sb = new StringBuilder(words * 8);
+		for (int i = 0; i < words; i++) {
+			if (i > 0)
+				sb.append(sep);
+
+			final int rank = rank(cdf, r.nextDouble() * total);
+			final String word = vocabulary[rank];
+
+			if (r.nextInt(10) == 0)
+				sb.append(Character.toUpperCase(word.charAt(0))).append(word, 1, word.length());
+			else
+				sb.append(word);
+
+			final int punctuation = r.nextInt(20);
+			if (punctuation == 0)
+				sb.append(',');
+			else if (punctuation == 1)
+				sb.append('.');
+		}
+		return sb.toString();
+	}
+
+	private static String[] vocabulary(SplittableRandom r) {
+		final String[] vocabulary = new String[VOCABULARY_SIZE];
+		System.arraycopy(STOPWORDS, 0, vocabulary, 0, STOPWORDS.length);
+
+		for (int i = STOPWORDS.length; i < VOCABULARY_SIZE; i++) {
+			final int length = 2 + r.nextInt(9);
+			final StringBuilder sb = new StringBuilder(length + 4);
+			for (int j = 0; j < length; j++)
+				sb.append(LETTERS.charAt(r.nextInt(LETTERS.length())));
+			// The rank makes the words unique
+			vocabulary[i] = sb.append(i).toString();
+		}
+		return vocabulary;
+	}
+
+	/**
+	 * @return the first rank with a cumulative probability higher than the given value
+	 */
+	private static int rank(double[] cdf, double value) {
+		int lo = 0;
+		int hi = cdf.length - 1;
+		while (lo < hi) {
+			final int mid = (lo + hi) >>> 1;
+			if (cdf[mid] < value)
+				lo = mid + 1;
+			else
+				hi = mid;
+		}
+		return lo;
+	}
+}
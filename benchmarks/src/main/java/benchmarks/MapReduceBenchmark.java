@@ -0,0 +1,80 @@
+package benchmarks;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Arrays;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+/**
+ * Project: lambda-tricks
+ * <p>
+ * The pipeline of the <code>MapReduce</code> example, written with a loop, with a sequential stream, and with a
+ * parallel stream. The reduction <code>(w1, w2) -> w1 + w2</code> has a quadratic cost, so the sizes are smaller than
+ * the ones of the {@link WordCountBenchmark}. The loop joins the words in the same way, so that all the variants do the
+ * same work.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class MapReduceBenchmark {
+
+	@Param({"1000", "10000"})
+	public int size;
+
+	@Param({"0.0", "1.0", "1.5"})
+	public double skew;
+
+	private String text;
+
+	private final Set<Character> vowels = Set.of('A', 'E', 'I', 'O', 'U');
+
+	@Setup
+	public void setup() {
+		text = Corpus.text(size, skew, 42, " ");
+	}
+
+	@Benchmark
+	public Optional<String> mapReduceLoop() {
+		String joined = null;
+		for (String word : text.split(" ")) {
+			String capitalized = word.substring(0, 1).toUpperCase() + word.substring(1).toLowerCase();
+			if (!vowels.contains(capitalized.charAt(0)))
+				// The same concatenation of the reduction, not a StringBuilder: here we compare loops and streams
+				joined = joined == null ? capitalized : joined + capitalized;
+		}
+		return Optional.ofNullable(joined);
+	}
+
+	@Benchmark
+	public Optional<String> mapReduceSequential() {
+		return mapReduce(Arrays.stream(text.split(" ")));
+	}
+
+	@Benchmark
+	public Optional<String> mapReduceParallel() {
+		return mapReduce(Arrays.stream(text.split(" ")).parallel());
+	}
+
+	private Optional<String> mapReduce(Stream<String> words) {
+		return words
+				.map(word -> word.substring(0, 1).toUpperCase() + word.substring(1).toLowerCase())
+				.filter(word -> !vowels.contains(word.charAt(0)))
+				.reduce((word1, word2) -> word1 + word2);
+	}
+}
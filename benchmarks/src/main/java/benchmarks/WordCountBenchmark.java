@@ -0,0 +1,176 @@
+package benchmarks;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Project: lambda-tricks
+ * <p>
+ * The word count pipelines of the <code>Streams</code>, <code>StreamMerge</code> and <code>StreamInParallel</code>
+ * examples, each one written in three ways: with plain loops, with a sequential stream, and with a parallel stream.
+ * The code of each variant is the same code of the examples, starting from the <code>split()</code> of the text.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class WordCountBenchmark {
+
+	@Param({"1000", "100000", "1000000"})
+	public int size;
+
+	@Param({"0.0", "1.0", "1.5"})
+	public double skew;
+
+	private String text;
+	private String text1;
+	private String text2;
+
+	private final Set<String> stopwords = Set.of(Corpus.STOPWORDS);
+
+	@Setup
+	public void setup() {
+		text = Corpus.text(size, skew, 42, " ");
+
+		// StreamMerge has a sentence with punctuation and a sentence with "-" between the words
+		text1 = Corpus.text(size / 2, skew, 43, " ");
+		text2 = Corpus.text(size / 2, skew, 44, " - ");
+	}
+
+	/* Streams */
+
+	@Benchmark
+	public Map<String, Integer> streamsLoop() {
+		List<String> words = List.of(text.split(" "));
+
+		List<String> lowercase = new ArrayList<>();
+		for (String word : words)
+			lowercase.add(word.toLowerCase());
+
+		List<String> clean = new ArrayList<>();
+		for (String word : lowercase)
+			clean.add(word.replaceAll("[.,]", ""));
+
+		List<String> removed = new ArrayList<>();
+		for (String word : clean)
+			if (!stopwords.contains(word))
+				removed.add(word);
+
+		Map<String, Integer> counts = new HashMap<>();
+		for (String word : removed) {
+			if (counts.containsKey(word))
+				counts.put(word, counts.get(word) + 1);
+			else
+				counts.put(word, 1);
+		}
+		return counts;
+	}
+
+	@Benchmark
+	public Map<String, Long> streamsSequential() {
+		return streams(List.of(text.split(" ")).stream());
+	}
+
+	@Benchmark
+	public Map<String, Long> streamsParallel() {
+		return streams(List.of(text.split(" ")).parallelStream());
+	}
+
+	private Map<String, Long> streams(Stream<String> words) {
+		return words
+				.map(String::toLowerCase)
+				.map(word -> word.replaceAll("[.,]", ""))
+				.filter(word -> !stopwords.contains(word))
+				.collect(Collectors.groupingBy(word -> word, Collectors.counting()));
+	}
+
+	/* StreamMerge */
+
+	@Benchmark
+	public Map<String, Integer> streamMergeLoop() {
+		List<String> tokens1 = List.of(text1.split(" "));
+		List<String> tokens2 = List.of(text2.split(" "));
+
+		List<String> merged = new ArrayList<>(tokens1.size() + tokens2.size());
+		for (String word : tokens1)
+			merged.add(word.replaceAll("[.,!]", ""));
+		for (String word : tokens2)
+			if (!word.equals("-"))
+				merged.add(word);
+
+		Map<String, Integer> counts = new HashMap<>();
+		for (String word : merged) {
+			String lower = word.toLowerCase();
+			if (!stopwords.contains(lower))
+				counts.merge(lower, 1, Integer::sum);
+		}
+		return counts;
+	}
+
+	@Benchmark
+	public Map<String, Integer> streamMergeSequential() {
+		return streamMerge(List.of(text1.split(" ")).stream(), List.of(text2.split(" ")).stream());
+	}
+
+	@Benchmark
+	public Map<String, Integer> streamMergeParallel() {
+		return streamMerge(List.of(text1.split(" ")).parallelStream(), List.of(text2.split(" ")).parallelStream());
+	}
+
+	private Map<String, Integer> streamMerge(Stream<String> tokens1, Stream<String> tokens2) {
+		Stream<String> stream1 = tokens1.map(word -> word.replaceAll("[.,!]", ""));
+		Stream<String> stream2 = tokens2.filter(word -> !word.equals("-"));
+
+		return Stream.concat(stream1, stream2)
+				.map(String::toLowerCase)
+				.filter(word -> !stopwords.contains(word))
+				.collect(Collectors.toMap(key -> key, value -> 1, Integer::sum));
+	}
+
+	/* StreamInParallel */
+
+	@Benchmark
+	public Map<String, Integer> inParallelLoop() {
+		List<String> words = List.of(text.split(" "));
+
+		Map<String, Integer> counts = new HashMap<>();
+		for (String word : words)
+			counts.merge(word.toLowerCase(), 1, Integer::sum);
+		return counts;
+	}
+
+	@Benchmark
+	public Map<String, Integer> inParallelSequential() {
+		return List.of(text.split(" ")).stream()
+				.map(String::toLowerCase)
+				.collect(Collectors.toMap(word -> word, count -> 1, Integer::sum));
+	}
+
+	@Benchmark
+	public ConcurrentMap<String, Integer> inParallelParallel() {
+		return List.of(text.split(" ")).parallelStream()
+				.map(String::toLowerCase)
+				.collect(Collectors.toConcurrentMap(word -> word, count -> 1, Integer::sum));
+	}
+}
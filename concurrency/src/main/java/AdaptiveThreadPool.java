@@ -0,0 +1,163 @@
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Project: lambda-tricks
+ * <p>
+ * {@link ThreadPoolExecutor} that chooses its number of threads by itself. With <code>cores - 1</code> threads, jobs
+ * that wait for I/O leave the CPU idle; with too many threads, jobs that use the CPU fight for the cores.
+ * <p>
+ * The pool measures the throughput, the number of completed tasks per second, in intervals of fixed length. After
+ * each interval a hill-climbing controller compares the throughput with the one of the previous interval: if the last
+ * change of the number of threads improved the throughput, the next change goes in the same direction, otherwise it
+ * goes in the opposite direction. The size of the changes grows while they keep improving and shrinks when they don't,
+ * and the number of threads always stays between the minimum and the maximum.
+ * <p>
+ * Small differences in throughput are noise: a change is considered an improvement only if the throughput grows more
+ * than {@link #TOLERANCE}. When the queue is empty, the pool has all the threads it needs and the controller waits.
+ */
+public class AdaptiveThreadPool extends ThreadPoolExecutor {
+
+	/**
+	 * Relative difference of throughput below which two intervals are considered equal.
+	 */
+	static final double TOLERANCE = 0.05;
+
+	private final int minThreads;
+	private final int maxThreads;
+
+	private final LongAdder completed = new LongAdder();
+	private final ScheduledExecutorService controller;
+
+	// State of the controller, used only by the controller thread
+	private long lastCompleted;
+	private long lastTime;
+	private volatile double lastThroughput;
+	private int direction = 1;
+	private int step = 1;
+
+	/**
+	 * @param minThreads min number of threads
+	 * @param maxThreads max number of threads
+	 * @param interval   length of a measure
+	 * @param unit       unit of the interval
+	 */
+	public AdaptiveThreadPool(int minThreads, int maxThreads, long interval, TimeUnit unit) {
+		super(minThreads, minThreads, 60, TimeUnit.SECONDS, new LinkedBlockingQueue<>());
+
+		if (minThreads <= 0 || maxThreads < minThreads)
+			throw new IllegalArgumentException("Invalid bounds: min=" + minThreads + " max=" + maxThreads);
+
+		this.minThreads = minThreads;
+		this.maxThreads = maxThreads;
+
+		this.lastTime = System.nanoTime();
+		this.controller = Executors.newSingleThreadScheduledExecutor(r -> {
+			final Thread thread = new Thread(r, "adaptive-pool-controller");
+			thread.setDaemon(true);
+			return thread;
+		});
+		this.controller.scheduleWithFixedDelay(this::adjust, interval, interval, unit);
+	}
+
+	/**
+	 * An adaptive pool that starts with the number of cores, and measures every 100 milliseconds.
+	 *
+	 * @param maxThreads max number of threads
+	 */
+	public AdaptiveThreadPool(int maxThreads) {
+		this(Math.min(maxThreads, Runtime.getRuntime().availableProcessors()), maxThreads, 100, TimeUnit.MILLISECONDS);
+	}
+
+	@Override
+	protected void afterExecute(Runnable r, Throwable t) {
+		super.afterExecute(r, t);
+		completed.increment();
+	}
+
+	/**
+	 * One step of the hill-climbing controller.
+	 */
+	private void adjust() {
+		final long now = System.nanoTime();
+		final long done = completed.sum();
+		final double throughput = (done - lastCompleted) * 1e9 / (now - lastTime);
+		lastCompleted = done;
+		lastTime = now;
+
+		if (getQueue().isEmpty()) {
+			// There is no work waiting: more threads cannot help, and the measure says nothing about the size
+			lastThroughput = throughput;
+			return;
+		}
+
+		if (throughput > lastThroughput * (1 + TOLERANCE)) {
+			// The last move helped: go on in the same direction, faster
+			step = Math.min(step * 2, Math.max(1, maxThreads / 4));
+		} else if (throughput < lastThroughput * (1 - TOLERANCE)) {
+			// The last move hurt: go back, slower
+			direction = -direction;
+			step = Math.max(1, step / 2);
+		} else {
+			// No difference: keep exploring with small steps
+			step = 1;
+		}
+		lastThroughput = throughput;
+
+		int size = getCorePoolSize() + direction * step;
+		if (size > maxThreads || size < minThreads) {
+			// Bounce on the bounds
+			direction = -direction;
+			size = Math.max(minThreads, Math.min(maxThreads, size));
+		}
+		resize(size);
+	}
+
+	private void resize(int size) {
+		// The max must always be greater or equal to the core size
+		if (size > getMaximumPoolSize()) {
+			setMaximumPoolSize(size);
+			setCorePoolSize(size);
+		} else {
+			setCorePoolSize(size);
+			setMaximumPoolSize(size);
+		}
+	}
+
+	public int minThreads() {
+		return minThreads;
+	}
+
+	public int maxThreads() {
+		return maxThreads;
+	}
+
+	/**
+	 * @return the throughput of the last interval, in tasks per second
+	 */
+	public double throughput() {
+		return lastThroughput;
+	}
+
+	@Override
+	public void shutdown() {
+		controller.shutdown();
+		super.shutdown();
+	}
+
+	@Override
+	protected void terminated() {
+		controller.shutdownNow();
+		super.terminated();
+	}
+
+	@Override
+	public String toString() {
+		return String.format("AdaptiveThreadPool{threads=%d, min=%d, max=%d, throughput=%.1f tasks/s}",
+				getCorePoolSize(), minThreads, maxThreads, lastThroughput);
+	}
+}
@@ -0,0 +1,101 @@
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.DoubleBuffer;
+
+/**
+ * Project: lambda-tricks
+ * <p>
+ * Columnar store for the arguments of the {@link Job}s: instead of a list of <code>double[]{a, b}</code> pairs, with
+ * one object for each pair, the arguments are kept in two columns of primitives, one for the values of
+ * <code>a</code> and one for the values of <code>b</code>.
+ * <p>
+ * The columns are {@link DoubleBuffer}s: they can wrap two <code>double[]</code> on the heap, or they can live
+ * off-heap, where they are not moved or scanned by the garbage collector. Only the absolute methods of the buffers are
+ * used, so many threads can read and write different ranges of the same columns at the same time.
+ */
+public class ArgumentColumns {
+
+	private final DoubleBuffer a;
+	private final DoubleBuffer b;
+
+	private ArgumentColumns(DoubleBuffer a, DoubleBuffer b) {
+		if (a.capacity() != b.capacity())
+			throw new IllegalArgumentException("Columns have different sizes: " + a.capacity() + " != " + b.capacity());
+
+		this.a = a;
+		this.b = b;
+	}
+
+	/**
+	 * @param a values of the first argument
+	 * @param b values of the second argument
+	 * @return columns on the heap that use the given arrays, without copying them
+	 */
+	public static ArgumentColumns wrap(double[] a, double[] b) {
+		return new ArgumentColumns(DoubleBuffer.wrap(a), DoubleBuffer.wrap(b));
+	}
+
+	/**
+	 * @param n number of arguments, at most <code>Integer.MAX_VALUE / Double.BYTES</code>
+	 * @return empty off-heap columns for <code>n</code> arguments
+	 * @throws IllegalArgumentException if <code>n</code> is negative or too big for a direct buffer
+	 */
+	public static ArgumentColumns allocateDirect(int n) {
+		return new ArgumentColumns(directColumn(n), directColumn(n));
+	}
+
+	/**
+	 * @param a values of the first argument
+	 * @param b values of the second argument
+	 * @return off-heap columns with a copy of the given arrays
+	 */
+	public static ArgumentColumns copyDirect(double[] a, double[] b) {
+		if (a.length != b.length)
+			throw new IllegalArgumentException("Columns have different sizes: " + a.length + " != " + b.length);
+
+		final ArgumentColumns columns = allocateDirect(a.length);
+		columns.a.duplicate().put(a);
+		columns.b.duplicate().put(b);
+		return columns;
+	}
+
+	/**
+	 * @param n number of values
+	 * @return an off-heap column of <code>n</code> doubles, in the native byte order of the CPU
+	 * @throws IllegalArgumentException if the column would need more than {@link Integer#MAX_VALUE} bytes
+	 */
+	static DoubleBuffer directColumn(int n) {
+		if (n < 0 || n > Integer.MAX_VALUE / Double.BYTES)
+			throw new IllegalArgumentException(
+					"Off-heap column size out of [0, " + Integer.MAX_VALUE / Double.BYTES + "]: " + n
+			);
+
+		return ByteBuffer.allocateDirect(n * Double.BYTES).order(ByteOrder.nativeOrder()).asDoubleBuffer();
+	}
+
+	public int size() {
+		return a.capacity();
+	}
+
+	public boolean isDirect() {
+		return a.isDirect();
+	}
+
+	public double a(int i) {
+		return a.get(i);
+	}
+
+	public double b(int i) {
+		return b.get(i);
+	}
+
+	public void set(int i, double a, double b) {
+		this.a.put(i, a);
+		this.b.put(i, b);
+	}
+
+	@Override
+	public String toString() {
+		return "ArgumentColumns{size=" + size() + ", direct=" + isDirect() + "}";
+	}
+}
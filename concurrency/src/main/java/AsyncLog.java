@@ -0,0 +1,210 @@
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.Charset;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Project: lambda-tricks
+ * <p>
+ * Asynchronous sink for log lines, to use instead of <code>System.out</code> in jobs and stream stages. Each call to
+ * <code>System.out.println()</code> takes the lock of the stream and writes to the console: with many threads and short
+ * jobs, the threads spend more time waiting for each other than working.
+ * <p>
+ * Here the threads format their records and add them to a lock-free queue, with many producers and one consumer, then
+ * continue. A background thread takes the records from the queue and writes them in batches, with a single write and
+ * a single flush for each batch. When the queue is empty the background thread sleeps, and it is woken up by the thread
+ * that adds the first record; when the queue is full, the threads that add records wait for the background thread.
+ * <p>
+ * The records of a thread are written in the order they were added, but they appear later than the lines written
+ * directly to <code>System.out</code>: call {@link #flush()} before writing to the console from another place. After
+ * {@link #close()}, the records are written directly by the thread that adds them.
+ */
+public class AsyncLog implements AutoCloseable {
+
+	/**
+	 * Max number of records written together.
+	 */
+	static final int MAX_BATCH = 1024;
+
+	/**
+	 * Max number of records in the queue, about: a few more can enter while the threads check the size.
+	 */
+	static final int MAX_QUEUED = 64 * 1024;
+
+	/**
+	 * Time a thread waits before checking again, while flushing or while the queue is full.
+	 */
+	static final long IDLE_NANOS = TimeUnit.MILLISECONDS.toNanos(1);
+
+	private static final AsyncLog OUT = new AsyncLog(new OutputStreamWriter(System.out, Charset.defaultCharset()));
+
+	static {
+		// Write the records still in the queue when the program terminates
+		Runtime.getRuntime().addShutdownHook(new Thread(OUT::close, "async-log-shutdown"));
+	}
+
+	private final Queue<Object> queue = new ConcurrentLinkedQueue<>();
+	private final AtomicInteger size = new AtomicInteger();
+	private final Writer writer;
+	private final Thread thread;
+
+	private volatile boolean running = true;
+	private volatile boolean closed;
+
+	/**
+	 * @param writer destination of the records
+	 */
+	public AsyncLog(Writer writer) {
+		this.writer = writer;
+		this.thread = new Thread(this::run, "async-log");
+		this.thread.setDaemon(true);
+		this.thread.start();
+	}
+
+	/**
+	 * @return the shared log that writes to <code>System.out</code>
+	 */
+	public static AsyncLog out() {
+		return OUT;
+	}
+
+	/**
+	 * Adds a line to the log. It can be used as a method reference, as an example <code>.peek(log::println)</code>.
+	 *
+	 * @param record the content of the line
+	 */
+	public void println(Object record) {
+		add(String.valueOf(record) + System.lineSeparator());
+	}
+
+	/**
+	 * Formats a record on the current thread and adds it to the log.
+	 *
+	 * @param format format of {@link String#format(String, Object...)}
+	 * @param args   arguments of the format
+	 */
+	public void printf(String format, Object... args) {
+		add(String.format(format, args));
+	}
+
+	private void add(Object record) {
+		// Backpressure: wait while the background thread empties the queue
+		while (size.get() >= MAX_QUEUED && running)
+			LockSupport.parkNanos(this, IDLE_NANOS);
+
+		queue.add(record);
+		if (size.getAndIncrement() == 0)
+			// The queue was empty: the background thread could be sleeping
+			LockSupport.unpark(thread);
+
+		if (closed)
+			// The background thread is gone: write it now, with the ones that arrived during close()
+			drain();
+	}
+
+	/**
+	 * Waits until all the records added before this call are written.
+	 */
+	public void flush() {
+		if (!running || Thread.currentThread() == thread)
+			return;
+
+		final CountDownLatch written = new CountDownLatch(1);
+		add(written);
+
+		try {
+			// The background thread can stop before it reads the latch, if the log is closed in the meantime
+			while (!written.await(IDLE_NANOS, TimeUnit.NANOSECONDS))
+				if (!thread.isAlive())
+					return;
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
+	}
+
+	/**
+	 * Writes all the records in the queue and stops the background thread. The records added later are written
+	 * directly.
+	 */
+	@Override
+	public void close() {
+		flush();
+		running = false;
+		LockSupport.unpark(thread);
+		try {
+			thread.join();
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
+		closed = true;
+		drain();
+	}
+
+	/**
+	 * Writes the records in the queue from the current thread, after the background thread stopped.
+	 */
+	private synchronized void drain() {
+		final StringBuilder batch = new StringBuilder();
+		for (Object record = queue.poll(); record != null; record = queue.poll()) {
+			size.decrementAndGet();
+			if (record instanceof CountDownLatch)
+				((CountDownLatch) record).countDown();
+			else
+				batch.append((String) record);
+		}
+		write(batch);
+	}
+
+	/**
+	 * Body of the background thread.
+	 */
+	private void run() {
+		final StringBuilder batch = new StringBuilder();
+
+		while (running || !queue.isEmpty()) {
+			CountDownLatch written = null;
+			int records = 0;
+
+			for (Object record = queue.poll(); record != null; record = queue.poll()) {
+				records++;
+				if (record instanceof CountDownLatch) {
+					// A flush: write what we have now, then release the thread that is waiting
+					written = (CountDownLatch) record;
+					break;
+				}
+				batch.append((String) record);
+				if (records >= MAX_BATCH)
+					break;
+			}
+			size.addAndGet(-records);
+
+			write(batch);
+
+			if (written != null)
+				written.countDown();
+			else if (records == 0 && running)
+				// Without timeout: the first record added to the empty queue wakes us up
+				LockSupport.park(this);
+		}
+	}
+
+	private void write(StringBuilder batch) {
+		if (batch.length() == 0)
+			return;
+
+		try {
+			writer.write(batch.toString());
+			writer.flush();
+		} catch (IOException e) {
+			// There is nowhere else to report it
+			e.printStackTrace();
+		}
+		batch.setLength(0);
+	}
+}
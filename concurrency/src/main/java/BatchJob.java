@@ -0,0 +1,68 @@
+import java.nio.DoubleBuffer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+
+/**
+ * Project: lambda-tricks
+ * <p>
+ * Batch version of the {@link Job}: instead of one {@link Callable} for each pair of arguments, a single
+ * {@link Callable} evaluates a whole range of {@link ArgumentColumns} and writes the results in the same range of a
+ * result column. The task is the same {@link Job#evaluate(double, double)}, but the number of objects depends on the
+ * number of batches, not on the number of arguments.
+ */
+public class BatchJob implements Callable<Integer> {
+
+	private final ArgumentColumns arguments;
+	private final DoubleBuffer results;
+	private final int from;
+	private final int to;
+
+	/**
+	 * @param arguments columns with the arguments
+	 * @param results   column where the results will be written, with the same size of the arguments
+	 * @param from      first argument of the batch (inclusive)
+	 * @param to        last argument of the batch (exclusive)
+	 */
+	public BatchJob(ArgumentColumns arguments, DoubleBuffer results, int from, int to) {
+		if (results.capacity() != arguments.size())
+			throw new IllegalArgumentException("Results size " + results.capacity() + " != arguments size " + arguments.size());
+		if (from < 0 || to > arguments.size() || from > to)
+			throw new IndexOutOfBoundsException("Range [" + from + ", " + to + ") out of [0, " + arguments.size() + ")");
+
+		this.arguments = arguments;
+		this.results = results;
+		this.from = from;
+		this.to = to;
+	}
+
+	/**
+	 * Splits all the arguments in batches of the same size (the last one can be smaller).
+	 *
+	 * @param arguments columns with the arguments
+	 * @param results   column where the results will be written
+	 * @param batchSize number of arguments in each batch
+	 * @return the list of jobs, in the order of the arguments
+	 */
+	public static List<BatchJob> split(ArgumentColumns arguments, DoubleBuffer results, int batchSize) {
+		if (batchSize <= 0)
+			throw new IllegalArgumentException("Batch size must be positive: " + batchSize);
+
+		final int n = arguments.size();
+		final List<BatchJob> jobs = new ArrayList<>((n + batchSize - 1) / batchSize);
+		for (int from = 0; from < n; from += batchSize)
+			jobs.add(new BatchJob(arguments, results, from, Math.min(n, from + batchSize)));
+		return jobs;
+	}
+
+	/**
+	 * @return the number of evaluated arguments
+	 */
+	@Override
+	public Integer call() {
+		for (int i = from; i < to; i++)
+			results.put(i, Job.evaluate(arguments.a(i), arguments.b(i)));
+
+		return to - from;
+	}
+}
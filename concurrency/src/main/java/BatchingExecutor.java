@@ -0,0 +1,170 @@
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Project: lambda-tricks
+ * <p>
+ * Facade over an {@link ExecutorService} for many small {@link Callable}s. With
+ * {@link ExecutorService#invokeAll(Collection)} each task is queued, taken by a thread, and wrapped in a
+ * {@link Future}: when the task is tiny, this costs more than the task itself.
+ * <p>
+ * Here each task is still wrapped in a {@link FutureTask}, but only a few workers are submitted to the executor. Each
+ * worker takes the next chunk of tasks from a shared cursor and runs them one after the other. The size of the chunks
+ * adapts to the measured time of the tasks: it is chosen so that a chunk takes about the target time, using an
+ * exponentially weighted moving average (EWMA) of the time per task. The average is kept between calls, so the
+ * following calls start with the size learned by the previous ones.
+ * <p>
+ * Like {@link ExecutorService#invokeAll(Collection)}, the returned futures are in the same order of the tasks, and
+ * they are all done when the method returns.
+ */
+public class BatchingExecutor {
+
+	/**
+	 * Default time of a chunk: long enough to hide the cost of a submission, short enough to keep the workers balanced.
+	 */
+	public static final long DEFAULT_TARGET_NANOS = TimeUnit.MICROSECONDS.toNanos(500);
+
+	/**
+	 * Weight of the last measure in the moving average.
+	 */
+	static final double ALPHA = 0.2;
+
+	private final ExecutorService delegate;
+	private final int parallelism;
+	private final long targetNanos;
+
+	/**
+	 * EWMA of the time per task in nanoseconds, as the bits of a double; negative until the first measure.
+	 */
+	private final AtomicLong taskNanos = new AtomicLong(Double.doubleToRawLongBits(-1.0));
+
+	/**
+	 * @param delegate    executor that runs the workers
+	 * @param parallelism number of workers submitted for each call, usually the number of threads of the executor
+	 */
+	public BatchingExecutor(ExecutorService delegate, int parallelism) {
+		this(delegate, parallelism, DEFAULT_TARGET_NANOS);
+	}
+
+	/**
+	 * @param delegate    executor that runs the workers
+	 * @param parallelism number of workers submitted for each call, usually the number of threads of the executor
+	 * @param targetNanos target time of a chunk of tasks, in nanoseconds
+	 */
+	public BatchingExecutor(ExecutorService delegate, int parallelism, long targetNanos) {
+		if (parallelism <= 0)
+			throw new IllegalArgumentException("Parallelism must be positive: " + parallelism);
+		if (targetNanos <= 0)
+			throw new IllegalArgumentException("Target time must be positive: " + targetNanos);
+
+		this.delegate = delegate;
+		this.parallelism = parallelism;
+		this.targetNanos = targetNanos;
+	}
+
+	/**
+	 * Executes the given tasks in adaptive chunks, and waits until all of them are done.
+	 *
+	 * @param tasks the tasks to execute
+	 * @param <T>   type of the results
+	 * @return the futures of the tasks, in the same order, all done
+	 * @throws InterruptedException if interrupted while waiting: the tasks not yet executed are cancelled
+	 */
+	public <T> List<Future<T>> invokeAll(Collection<? extends Callable<T>> tasks) throws InterruptedException {
+		final List<FutureTask<T>> futures = new ArrayList<>(tasks.size());
+		for (Callable<T> task : tasks)
+			futures.add(new FutureTask<>(task));
+
+		final AtomicInteger cursor = new AtomicInteger();
+		final int workers = Math.min(parallelism, futures.size());
+
+		final List<Future<?>> running = new ArrayList<>(workers);
+		try {
+			for (int w = 0; w < workers; w++)
+				running.add(delegate.submit(() -> work(futures, cursor, workers)));
+
+			for (Future<?> worker : running)
+				worker.get();
+
+		} catch (ExecutionException e) {
+			// The FutureTasks keep the exceptions of the tasks: a worker can only fail for an error of this class
+			throw new IllegalStateException(e.getCause());
+
+		} catch (InterruptedException | RejectedExecutionException e) {
+			for (FutureTask<T> future : futures)
+				future.cancel(true);
+			for (Future<?> worker : running)
+				worker.cancel(true);
+			throw e;
+		}
+
+		return new ArrayList<>(futures);
+	}
+
+	/**
+	 * Body of a worker: takes chunks of tasks until there are no more tasks.
+	 */
+	private <T> void work(List<FutureTask<T>> futures, AtomicInteger cursor, int workers) {
+		final int n = futures.size();
+
+		while (true) {
+			final int from = cursor.get();
+			if (from >= n)
+				return;
+
+			// Keep at least a couple of chunks for each worker, so that the last chunks are balanced
+			final int remaining = n - from;
+			final int size = Math.max(1, Math.min(batchSize(), remaining / (2 * workers)));
+
+			if (!cursor.compareAndSet(from, from + size))
+				continue;
+
+			final long start = System.nanoTime();
+			for (int i = from; i < from + size; i++)
+				futures.get(i).run();
+			record(System.nanoTime() - start, size);
+		}
+	}
+
+	/**
+	 * Updates the moving average with the time of a chunk.
+	 */
+	private void record(long nanos, int tasks) {
+		final double sample = (double) nanos / tasks;
+
+		long bits;
+		double next;
+		do {
+			bits = taskNanos.get();
+			final double current = Double.longBitsToDouble(bits);
+			next = current < 0 ? sample : current + ALPHA * (sample - current);
+		} while (!taskNanos.compareAndSet(bits, Double.doubleToRawLongBits(next)));
+	}
+
+	/**
+	 * @return the current estimate of the time per task in nanoseconds, or a negative value if there is no measure yet
+	 */
+	public double taskNanos() {
+		return Double.longBitsToDouble(taskNanos.get());
+	}
+
+	/**
+	 * @return the current size of a chunk: the number of tasks that take about the target time (1 without measures)
+	 */
+	public int batchSize() {
+		final double nanos = taskNanos();
+		if (nanos < 0)
+			return 1;
+		return (int) Math.max(1, Math.min(Integer.MAX_VALUE, targetNanos / Math.max(1.0, nanos)));
+	}
+
+	@Override
+	public String toString() {
+		return String.format("BatchingExecutor{parallelism=%d, taskNanos=%.1f, batchSize=%d}",
+				parallelism, taskNanos(), batchSize());
+	}
+}
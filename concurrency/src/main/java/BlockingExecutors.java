@@ -0,0 +1,44 @@
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Project: lambda-tricks
+ * <p>
+ * Factory of executors for jobs that spend most of their time blocked, waiting for I/O, a sleep, or a lock.
+ * <p>
+ * This is the Java 11 version: there are no virtual threads, so the executor is a fixed pool of platform threads. When
+ * built with Java 21 or newer, the jar is a multi-release jar and on a Java 21 runtime this class is replaced by the
+ * one in <code>src/main/java21</code>, that creates a virtual thread for each task.
+ */
+public class BlockingExecutors {
+
+	/**
+	 * Threads of the fallback pool: blocked threads do not use the CPU, so there can be many more than the cores.
+	 */
+	public static final int DEFAULT_POOL_SIZE = 256;
+
+	private BlockingExecutors() {
+	}
+
+	/**
+	 * @return an executor for blocking jobs: a fixed pool of {@link #DEFAULT_POOL_SIZE} threads
+	 */
+	public static ExecutorService newBlockingExecutor() {
+		return newBlockingExecutor(DEFAULT_POOL_SIZE);
+	}
+
+	/**
+	 * @param poolSize number of threads of the pool
+	 * @return an executor for blocking jobs: a fixed pool of <code>poolSize</code> threads
+	 */
+	public static ExecutorService newBlockingExecutor(int poolSize) {
+		return Executors.newFixedThreadPool(poolSize);
+	}
+
+	/**
+	 * @return true if the executors of this class use virtual threads
+	 */
+	public static boolean virtualThreads() {
+		return false;
+	}
+}
@@ -0,0 +1,157 @@
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.concurrent.*;
+
+/**
+ * Project: lambda-tricks
+ * <p>
+ * Executes jobs and delivers their results as soon as they complete. With {@link ExecutorService#invokeAll} the caller
+ * waits for all the jobs, and then reads the futures in order: one slow job delays all the results.
+ * <p>
+ * Here the jobs are submitted to an {@link ExecutorCompletionService}, that queues each future when it is done. The
+ * caller thread takes the completed futures from the queue and gives the results to a {@link ResultConsumer}, so the
+ * consumer is never called concurrently. There are at most <code>maxInFlight</code> jobs submitted and not yet
+ * delivered: when the limit is reached, the next job is submitted only after a result is delivered. The jobs can then
+ * come from a lazy or very long {@link Iterable} without filling the queue of the executor.
+ * <p>
+ * With {@link #runOrdered(Iterable, ResultConsumer)} the results are delivered in the order of the jobs: the completed
+ * results wait in a reassembly buffer until all the previous ones are delivered. The buffered results count as in
+ * flight, so the buffer never grows over the limit.
+ */
+public class CompletionPipeline {
+
+	/**
+	 * Receives the results of the jobs, on the thread that runs the pipeline.
+	 *
+	 * @param <T> type of the results
+	 */
+	public interface ResultConsumer<T> {
+
+		/**
+		 * @param index  position of the job in the submitted jobs
+		 * @param result result of the job
+		 */
+		void accept(long index, T result);
+
+		/**
+		 * Called when a job throws an exception. By default the pipeline stops: the jobs in flight are cancelled and
+		 * the exception is thrown by the run method, wrapped in a {@link CompletionException}.
+		 *
+		 * @param index position of the job in the submitted jobs
+		 * @param error exception thrown by the job
+		 */
+		default void failed(long index, Throwable error) {
+			throw new CompletionException("Job " + index + " failed", error);
+		}
+	}
+
+	private final Executor executor;
+	private final int maxInFlight;
+
+	/**
+	 * @param executor    executor that runs the jobs
+	 * @param maxInFlight max number of jobs submitted and not yet delivered
+	 */
+	public CompletionPipeline(Executor executor, int maxInFlight) {
+		if (maxInFlight <= 0)
+			throw new IllegalArgumentException("Max in flight must be positive: " + maxInFlight);
+
+		this.executor = executor;
+		this.maxInFlight = maxInFlight;
+	}
+
+	/**
+	 * Executes the jobs and delivers the results in the order they complete.
+	 *
+	 * @param jobs     jobs to execute, read lazily
+	 * @param consumer receives the results
+	 * @param <T>      type of the results
+	 * @return the number of delivered results
+	 * @throws InterruptedException if interrupted while waiting: the jobs in flight are cancelled
+	 */
+	public <T> long run(Iterable<? extends Callable<T>> jobs, ResultConsumer<? super T> consumer)
+			throws InterruptedException {
+		return execute(jobs, consumer, false);
+	}
+
+	/**
+	 * Executes the jobs and delivers the results in the order of the jobs.
+	 *
+	 * @param jobs     jobs to execute, read lazily
+	 * @param consumer receives the results
+	 * @param <T>      type of the results
+	 * @return the number of delivered results
+	 * @throws InterruptedException if interrupted while waiting: the jobs in flight are cancelled
+	 */
+	public <T> long runOrdered(Iterable<? extends Callable<T>> jobs, ResultConsumer<? super T> consumer)
+			throws InterruptedException {
+		return execute(jobs, consumer, true);
+	}
+
+	private <T> long execute(
+			Iterable<? extends Callable<T>> jobs,
+			ResultConsumer<? super T> consumer,
+			boolean ordered
+	) throws InterruptedException {
+		final CompletionService<T> completion = new ExecutorCompletionService<>(executor);
+
+		// The completion service queues the same future returned by submit(), so we can find its index
+		final Map<Future<T>, Long> inFlight = new IdentityHashMap<>();
+		// Completed futures waiting for the previous ones, only for the ordered delivery
+		final Map<Long, Future<T>> buffer = new HashMap<>();
+
+		final Iterator<? extends Callable<T>> iterator = jobs.iterator();
+		long submitted = 0;
+		long delivered = 0;
+
+		try {
+			while (true) {
+				while (submitted - delivered < maxInFlight && iterator.hasNext())
+					inFlight.put(completion.submit(iterator.next()), submitted++);
+
+				if (delivered == submitted)
+					return delivered;
+
+				final Future<T> future = completion.take();
+				final long index = inFlight.remove(future);
+
+				if (!ordered) {
+					deliver(index, future, consumer);
+					delivered++;
+					continue;
+				}
+
+				buffer.put(index, future);
+				for (Future<T> next = buffer.remove(delivered); next != null; next = buffer.remove(delivered)) {
+					deliver(delivered, next, consumer);
+					delivered++;
+				}
+			}
+
+		} catch (InterruptedException | RuntimeException e) {
+			for (Future<T> future : inFlight.keySet())
+				future.cancel(true);
+			throw e;
+		}
+	}
+
+	private static <T> void deliver(long index, Future<T> future, ResultConsumer<? super T> consumer)
+			throws InterruptedException {
+		final T result;
+		try {
+			// The future is done: get() does not block
+			result = future.get();
+		} catch (ExecutionException e) {
+			consumer.failed(index, e.getCause());
+			return;
+		}
+		consumer.accept(index, result);
+	}
+
+	@Override
+	public String toString() {
+		return "CompletionPipeline{maxInFlight=" + maxInFlight + "}";
+	}
+}
@@ -0,0 +1,68 @@
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.*;
+
+/**
+ * Project: lambda-tricks
+ */
+public class ExecutorAdaptive {
+
+	/**
+	 * The other examples use a pool of <code>cores - 1</code> threads, that is right only for jobs that always use the
+	 * CPU. Here the same {@link AdaptiveThreadPool} runs two kinds of jobs: jobs that compute, like the {@link Job},
+	 * and jobs that wait, like the ones of the {@link ExecutorBlockingJobs} example. The pool finds a good number of
+	 * threads for both, without changing any parameter.
+	 *
+	 * @param args ignored
+	 */
+	public static void main(String[] args) throws InterruptedException, ExecutionException {
+
+		final int threads = Math.max(1, Runtime.getRuntime().availableProcessors() - 1);
+		final double[][] columns = new RandomArguments(42).columns(1_000);
+
+		// Jobs that use the CPU for about a millisecond
+		final List<Callable<Double>> computing = new ArrayList<>();
+		for (int i = 0; i < 3_000; i++) {
+			final double a = columns[0][i % 1_000];
+			final double b = columns[1][i % 1_000];
+			computing.add(() -> {
+				double c = 0.0;
+				for (int k = 0; k < 20_000; k++)
+					c += Job.evaluate(a, b + k);
+				return c;
+			});
+		}
+
+		// Jobs that wait for 10 milliseconds
+		final List<Callable<Double>> waiting = new ArrayList<>();
+		for (int i = 0; i < 3_000; i++) {
+			final double a = columns[0][i % 1_000];
+			final double b = columns[1][i % 1_000];
+			waiting.add(() -> {
+				Thread.sleep(10);
+				return Job.evaluate(a, b);
+			});
+		}
+
+		final ExecutorService fixed = Executors.newFixedThreadPool(threads);
+		run("Fixed (" + threads + ") computing", fixed, computing);
+		run("Fixed (" + threads + ") waiting", fixed, waiting);
+		fixed.shutdown();
+
+		final AdaptiveThreadPool adaptive = new AdaptiveThreadPool(256);
+		run("Adaptive computing", adaptive, computing);
+		System.out.println("\t" + adaptive);
+		run("Adaptive waiting", adaptive, waiting);
+		System.out.println("\t" + adaptive);
+		adaptive.shutdown();
+	}
+
+	private static void run(String name, ExecutorService es, List<Callable<Double>> jobs)
+			throws InterruptedException, ExecutionException {
+		final long start = System.nanoTime();
+		double sum = 0.0;
+		for (Future<Double> future : es.invokeAll(jobs))
+			sum += future.get();
+		System.out.printf("%-24s %8.2fms (sum=%.3f)%n", name, (System.nanoTime() - start) / 1e6, sum);
+	}
+}
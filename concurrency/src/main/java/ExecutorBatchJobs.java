@@ -0,0 +1,85 @@
+import java.nio.DoubleBuffer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.*;
+
+/**
+ * Project: lambda-tricks
+ */
+public class ExecutorBatchJobs {
+
+	/**
+	 * In the {@link ExecutorManyJobs} example we built one <code>double[]</code> and one {@link Job} for each pair of
+	 * arguments. This is fine for 20 jobs, but with millions of arguments the objects are more expensive than the
+	 * jobs themselves: each one needs to be allocated, submitted, wrapped in a {@link Future}, and collected.
+	 * <p>
+	 * Here the arguments are stored in {@link ArgumentColumns} and evaluated with a {@link BatchJob} for each batch of
+	 * arguments: the number of objects depends on the number of threads, not on the number of arguments.
+	 *
+	 * @param args optional number of arguments (default 1 million: the first two runs create one {@link Callable} and
+	 *             one {@link Future} for each argument, and with many millions they need more than the default heap)
+	 */
+	public static void main(String[] args) throws InterruptedException, ExecutionException {
+
+		final int n = args.length > 0 ? Integer.parseInt(args[0]) : 1_000_000;
+		final int threads = Math.max(1, Runtime.getRuntime().availableProcessors() - 1);
+
+		System.out.println("Arguments: " + n + ", threads: " + threads);
+
+		final ExecutorService es = Executors.newFixedThreadPool(threads);
+
+		final double[][] columns = new RandomArguments(42).columns(n);
+
+		// One array and one Callable for each pair of arguments, like in the ExecutorManyJobs example
+		// (without the print of the arguments, that would take more time than the jobs)
+		long start = System.nanoTime();
+		final List<Callable<Double>> jobs = new ArrayList<>(n);
+		for (int i = 0; i < n; i++) {
+			final double[] argument = {columns[0][i], columns[1][i]};
+			jobs.add(() -> Job.evaluate(argument[0], argument[1]));
+		}
+		double sum = 0.0;
+		for (Future<Double> future : es.invokeAll(jobs))
+			sum += future.get();
+		System.out.printf("%-18s %8.2fms (sum=%.6f)%n", "Job per argument", (System.nanoTime() - start) / 1e6, sum);
+
+		// The same Callables, but executed in chunks by a few workers: the size of the chunks adapts to the time of
+		// the jobs, and the futures are still in the order of the jobs
+		final BatchingExecutor batching = new BatchingExecutor(es, threads);
+		start = System.nanoTime();
+		sum = 0.0;
+		for (Future<Double> future : batching.invokeAll(jobs))
+			sum += future.get();
+		jobs.clear();
+		System.out.printf("%-18s %8.2fms (sum=%.6f) %s%n", "Job, adaptive", (System.nanoTime() - start) / 1e6, sum,
+				batching);
+
+		// Few batches on the columns on the heap, that use the same arrays without copying them...
+		run("Batches on heap", es, ArgumentColumns.wrap(columns[0], columns[1]), DoubleBuffer.allocate(n), threads);
+
+		// ...and off-heap
+		run("Batches off-heap", es, ArgumentColumns.copyDirect(columns[0], columns[1]),
+				ArgumentColumns.directColumn(n), threads);
+
+		es.shutdown();
+	}
+
+	private static void run(String name, ExecutorService es, ArgumentColumns arguments, DoubleBuffer results,
+	                        int threads) throws InterruptedException, ExecutionException {
+		final long start = System.nanoTime();
+
+		// A few batches for each thread, so a slower thread does not slow down all the others
+		final int batchSize = Math.max(1, arguments.size() / (threads * 4));
+
+		for (Future<Integer> future : es.invokeAll(BatchJob.split(arguments, results, batchSize)))
+			future.get();
+
+		final long time = System.nanoTime() - start;
+
+		double sum = 0.0;
+		for (int i = 0; i < results.capacity(); i++)
+			sum += results.get(i);
+
+		System.out.printf("%-18s %8.2fms (sum=%.6f)%n", name, time / 1e6, sum);
+	}
+}
@@ -0,0 +1,61 @@
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.*;
+
+/**
+ * Project: lambda-tricks
+ */
+public class ExecutorBlockingJobs {
+
+	/**
+	 * In the {@link ExecutorManyJobs} example the pool has <code>cores - 1</code> threads: this is right for jobs that
+	 * use the CPU, but most of the real jobs wait for a file, a database, or a web service. While a job waits, its
+	 * thread does nothing, and the other jobs wait in the queue.
+	 * <p>
+	 * Here many jobs that only sleep are executed with the fixed pool of the other examples and with the executor of
+	 * {@link BlockingExecutors}: a big fixed pool on Java 11, a virtual thread for each job on Java 21. To use the
+	 * virtual threads, build the jar with Java 21+ and run it with:
+	 * <pre>
+	 * java -cp target/concurrency-1.0-SNAPSHOT.jar ExecutorBlockingJobs 100000
+	 * </pre>
+	 *
+	 * @param args optional number of jobs (default 10000) and time of each job in milliseconds (default 1)
+	 */
+	public static void main(String[] args) throws InterruptedException {
+
+		final int n = args.length > 0 ? Integer.parseInt(args[0]) : 10_000;
+		final long millis = args.length > 1 ? Long.parseLong(args[1]) : 1;
+		final int threads = Math.max(1, Runtime.getRuntime().availableProcessors() - 1);
+
+		System.out.println("Jobs: " + n + ", blocked for " + millis + "ms each, virtual threads: "
+				+ BlockingExecutors.virtualThreads());
+
+		final List<Callable<Long>> jobs = new ArrayList<>(n);
+		for (int i = 0; i < n; i++) {
+			final long id = i;
+			jobs.add(() -> {
+				// A job that waits for something: the thread is blocked, but it does not use the CPU
+				Thread.sleep(millis);
+				return id;
+			});
+		}
+
+		run("Fixed pool (" + threads + ")", Executors.newFixedThreadPool(threads), jobs);
+		run("Blocking executor", BlockingExecutors.newBlockingExecutor(), jobs);
+	}
+
+	private static void run(String name, ExecutorService es, List<Callable<Long>> jobs) throws InterruptedException {
+		final long start = System.nanoTime();
+
+		// All the jobs are submitted at once: with a fixed pool, only a few of them run at the same time
+		final List<Future<Long>> futures = es.invokeAll(jobs);
+		final long time = System.nanoTime() - start;
+
+		es.shutdown();
+		es.awaitTermination(1, TimeUnit.MINUTES);
+
+		final long done = futures.stream().filter(f -> f.isDone() && !f.isCancelled()).count();
+
+		System.out.printf("%-20s %10.2fms %12.0f jobs/s (%d done)%n", name, time / 1e6, jobs.size() / (time / 1e9), done);
+	}
+}
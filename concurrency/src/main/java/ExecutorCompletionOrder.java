@@ -0,0 +1,53 @@
+import java.util.List;
+import java.util.concurrent.*;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+/**
+ * Project: lambda-tricks
+ */
+public class ExecutorCompletionOrder {
+
+	/**
+	 * In the {@link ExecutorManyJobs} example we wait with <code>invokeAll()</code> for all the jobs to finish, then we
+	 * read the results in order. If the first job is slow, we cannot see any result until it is done, even if all the
+	 * others finished long before.
+	 * <p>
+	 * With a {@link CompletionPipeline} we get each result as soon as its job is done, and at most a few jobs are in
+	 * flight at the same time. If we need the results in the order of the jobs, the pipeline can reorder them for us.
+	 *
+	 * @param args ignored
+	 */
+	public static void main(String[] args) throws InterruptedException {
+
+		final int threads = Math.max(1, Runtime.getRuntime().availableProcessors() - 1);
+		final ExecutorService es = Executors.newFixedThreadPool(threads);
+
+		final double[][] columns = new RandomArguments(42).columns(20);
+
+		// Each job takes a different time, from 0 to 200 milliseconds
+		final List<Callable<Double>> jobs = IntStream.range(0, 20)
+				.mapToObj(i -> (Callable<Double>) () -> {
+					Thread.sleep((long) (columns[0][i] * 200));
+					return Job.evaluate(columns[0][i], columns[1][i]);
+				})
+				.collect(Collectors.toList());
+
+		// At most 2 jobs for each thread: one running and one ready to start
+		final CompletionPipeline pipeline = new CompletionPipeline(es, 2 * threads);
+
+		final long start = System.currentTimeMillis();
+
+		// The results arrive in the order the jobs complete, on the main thread
+		System.out.println("Completion order:");
+		pipeline.run(jobs, (i, c) -> System.out.printf("%5dms job %2d: a=%.2f b=%.2f -> c=%.2f%n",
+				System.currentTimeMillis() - start, i, columns[0][(int) i], columns[1][(int) i], c));
+
+		// The same jobs, but the results arrive in the order of the jobs
+		System.out.println("Submission order:");
+		pipeline.runOrdered(jobs, (i, c) -> System.out.printf("%5dms job %2d: a=%.2f b=%.2f -> c=%.2f%n",
+				System.currentTimeMillis() - start, i, columns[0][(int) i], columns[1][(int) i], c));
+
+		es.shutdown();
+	}
+}
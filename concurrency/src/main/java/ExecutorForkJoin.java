@@ -0,0 +1,77 @@
+import java.nio.DoubleBuffer;
+import java.util.List;
+import java.util.concurrent.*;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+/**
+ * Project: lambda-tricks
+ */
+public class ExecutorForkJoin {
+
+	/**
+	 * In the {@link ExecutorManyJobs} example all the jobs have the same cost. Here the cost of a job grows with its
+	 * position: with a few static batches, like the ones of the {@link ExecutorBatchJobs} example, the thread with
+	 * the last batch does most of the work while the others wait.
+	 * <p>
+	 * With {@link ForkJoinJobs} the jobs are split recursively, and the threads that finish first steal the remaining
+	 * work from the others.
+	 *
+	 * @param args optional number of jobs (default 20000)
+	 */
+	public static void main(String[] args) throws InterruptedException, ExecutionException {
+
+		final int n = args.length > 0 ? Integer.parseInt(args[0]) : 20_000;
+		final int threads = Math.max(1, Runtime.getRuntime().availableProcessors() - 1);
+
+		System.out.println("Jobs: " + n + ", threads: " + threads);
+
+		final double[][] columns = new RandomArguments(42).columns(n);
+
+		// The i-th job evaluates its arguments i times
+		final List<Callable<Double>> jobs = IntStream.range(0, n)
+				.mapToObj(i -> (Callable<Double>) () -> {
+					double c = 0.0;
+					for (int k = 0; k <= i; k++)
+						c += Job.evaluate(columns[0][i], columns[1][i] + k);
+					return c;
+				})
+				.collect(Collectors.toList());
+
+		// One static batch for each thread, on a fixed pool
+		final ExecutorService es = Executors.newFixedThreadPool(threads);
+		final int batchSize = (n + threads - 1) / threads;
+		final List<Callable<Double>> batches = IntStream.range(0, threads)
+				.mapToObj(t -> (Callable<Double>) () -> {
+					double sum = 0.0;
+					for (int i = t * batchSize; i < Math.min(n, (t + 1) * batchSize); i++)
+						sum += jobs.get(i).call();
+					return sum;
+				})
+				.collect(Collectors.toList());
+
+		long start = System.nanoTime();
+		double sum = 0.0;
+		for (Future<Double> future : es.invokeAll(batches))
+			sum += future.get();
+		System.out.printf("%-16s %8.2fms (sum=%.6f)%n", "Static batches", (System.nanoTime() - start) / 1e6, sum);
+		es.shutdown();
+
+		// The same jobs, with work stealing
+		final ForkJoinPool pool = new ForkJoinPool(threads);
+		final ForkJoinJobs forkJoin = new ForkJoinJobs(pool, ForkJoinJobs.DEFAULT_THRESHOLD);
+
+		start = System.nanoTime();
+		sum = 0.0;
+		for (double c : forkJoin.invokeAll(jobs))
+			sum += c;
+		System.out.printf("%-16s %8.2fms (sum=%.6f) %s%n", "Fork/join", (System.nanoTime() - start) / 1e6, sum, forkJoin);
+
+		// The columnar version of the ExecutorBatchJobs example: with cheap jobs, the ranges can be bigger
+		final DoubleBuffer results = DoubleBuffer.allocate(n);
+		final int evaluated = new ForkJoinJobs(pool, 1024).evaluate(ArgumentColumns.wrap(columns[0], columns[1]), results);
+		System.out.println("Evaluated arguments: " + evaluated);
+
+		pool.shutdown();
+	}
+}
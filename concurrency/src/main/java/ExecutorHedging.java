@@ -0,0 +1,73 @@
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.*;
+
+/**
+ * Project: lambda-tricks
+ */
+public class ExecutorHedging {
+
+	/**
+	 * Sets of jobs like the one of the {@link ExecutorManyJobs} example, where each job usually takes 10 milliseconds,
+	 * but sometimes, like during a pause of the garbage collector, it takes half a second. With
+	 * <code>invokeAll()</code> a set is complete only when its slowest job is complete: with 50 jobs and 2% of slow
+	 * jobs, most of the sets wait for a slow one.
+	 * <p>
+	 * With a {@link HedgingExecutor}, a job that takes more than the 95th percentile of the previous jobs is started
+	 * again: the copy is probably fast, and the set does not wait for the slow job anymore.
+	 *
+	 * @param args ignored
+	 */
+	public static void main(String[] args) throws InterruptedException, ExecutionException {
+
+		final int sets = 20;
+		final int jobsPerSet = 50;
+
+		// The jobs wait most of the time, so the pool can have more threads than the cores
+		final ExecutorService es = Executors.newFixedThreadPool(64);
+
+		final double[][] columns = new RandomArguments(42).columns(jobsPerSet);
+		final List<Callable<Double>> jobs = new ArrayList<>();
+		for (int i = 0; i < jobsPerSet; i++) {
+			final double a = columns[0][i];
+			final double b = columns[1][i];
+			jobs.add(() -> {
+				// Each execution, including a copy, is slow with probability 2%
+				Thread.sleep(ThreadLocalRandom.current().nextDouble() < 0.02 ? 500 : 10);
+				return Job.evaluate(a, b);
+			});
+		}
+
+		final long[] plain = new long[sets];
+		for (int s = 0; s < sets; s++) {
+			final long start = System.nanoTime();
+			for (Future<Double> future : es.invokeAll(jobs))
+				future.get();
+			plain[s] = System.nanoTime() - start;
+		}
+		print("invokeAll()", plain);
+
+		final TimingWheel wheel = new TimingWheel(es, 1, TimeUnit.MILLISECONDS, 512);
+		final HedgingExecutor hedging = new HedgingExecutor(es, wheel, 95.0);
+
+		final long[] hedged = new long[sets];
+		for (int s = 0; s < sets; s++) {
+			final long start = System.nanoTime();
+			for (Future<Double> future : hedging.invokeAll(jobs))
+				future.get();
+			hedged[s] = System.nanoTime() - start;
+		}
+		print("hedged", hedged);
+		System.out.println(hedging);
+
+		wheel.stop();
+		es.shutdown();
+	}
+
+	private static void print(String name, long[] times) {
+		Arrays.sort(times);
+		System.out.printf("%-12s time of a set: p50 %6.1fms  p90 %6.1fms  max %6.1fms%n", name,
+				times[times.length / 2] / 1e6, times[times.length * 9 / 10] / 1e6, times[times.length - 1] / 1e6);
+	}
+}
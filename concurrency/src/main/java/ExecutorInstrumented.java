@@ -0,0 +1,64 @@
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import javax.management.openmbean.CompositeData;
+import java.lang.management.ManagementFactory;
+import java.util.List;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+/**
+ * Project: lambda-tricks
+ */
+public class ExecutorInstrumented {
+
+	/**
+	 * The same pool of the {@link ExecutorManyJobs} example, but wrapped in an {@link InstrumentedExecutorService}:
+	 * while the jobs run, a report with the throughput and the queue is printed every 250 milliseconds, and at the end
+	 * we can see how much time the jobs waited in the queue and how much time they ran.
+	 * <p>
+	 * The same values are exported through JMX: while the example runs, they are visible in JConsole under
+	 * <code>lambda-tricks/Executor/"jobs"</code>.
+	 *
+	 * @param args ignored
+	 */
+	public static void main(String[] args) throws Exception {
+
+		final int threads = Math.max(1, Runtime.getRuntime().availableProcessors() - 1);
+
+		// The only difference with the other examples is how the executor is created
+		final InstrumentedExecutorService es = InstrumentedExecutorService.newFixedThreadPool(threads);
+		final ObjectName name = es.register("jobs");
+
+		// Each report compares the new snapshot with the previous one to compute the throughput
+		final AtomicReference<ExecutorStats> previous = new AtomicReference<>(es.snapshot());
+		es.report(250, TimeUnit.MILLISECONDS, stats -> System.out.printf(
+				"completed=%4d queued=%4d active=%d throughput=%6.1f jobs/s%n",
+				stats.completed(), stats.queued(), stats.active(), stats.throughputSince(previous.getAndSet(stats))
+		));
+
+		final double[][] columns = new RandomArguments(42).columns(200);
+
+		// Jobs that wait from 0 to 20 milliseconds
+		final List<Callable<Double>> jobs = IntStream.range(0, 200)
+				.mapToObj(i -> (Callable<Double>) () -> {
+					Thread.sleep((long) (columns[0][i] * 20));
+					return Job.evaluate(columns[0][i], columns[1][i]);
+				})
+				.collect(Collectors.toList());
+
+		for (Future<Double> future : es.invokeAll(jobs))
+			future.get();
+
+		// The same data, read through JMX
+		final MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+		final CompositeData wait = (CompositeData) server.getAttribute(name, "QueueWait");
+		System.out.println("JMX: completed=" + server.getAttribute(name, "Completed")
+				+ " queueWait.p99=" + LatencyHistogram.Snapshot.format((Long) wait.get("p99")));
+
+		es.shutdown();
+
+		System.out.println(es.snapshot());
+	}
+}
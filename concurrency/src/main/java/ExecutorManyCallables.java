@@ -1,5 +1,4 @@
 import java.util.List;
-import java.util.Random;
 import java.util.concurrent.*;
 import java.util.stream.Collectors;
 import java.util.stream.IntStream;
@@ -42,14 +41,17 @@ public class ExecutorManyCallables {
 		// First, let's use a random generator to build a list of arguments. To keep it easy, we are building a list
 		// of arrays of double of length 2.
 
+		// A Random captured by a lambda is shared by all the threads of a parallel stream, and the values depend on
+		// their order. RandomArguments generates the arguments in parallel chunks, each one with its own generator: the
+		// values are the same for the same seed, no matter how many threads are used.
 		// To use an object external to a lambda inside a lambda, this object need to be FINAL
-		final Random r = new Random(42);
+		final double[][] columns = new RandomArguments(42).columns(20);
 
-		final List<double[]> arguments = IntStream.range(1, 21) // this generates a list of int from 1 to 20
+		final List<double[]> arguments = IntStream.range(0, 20) // this generates a list of int from 0 to 19
 				// We want to convert the int (primitive) to an Object (an array)
 				.mapToObj(
-						// We are going to generate 20 pair of doubles
-						i -> new double[]{r.nextDouble(), r.nextDouble()}
+						// We are going to take the i-th pair of doubles
+						i -> new double[]{columns[0][i], columns[1][i]}
 				)
 				// Finally, we want to collect all the arguments
 				.collect(
@@ -67,7 +69,9 @@ public class ExecutorManyCallables {
 							double a = arg[0];
 							double b = arg[1];
 
-							System.out.printf("Arguments: a=%.2f b=%.2f%n", a, b);
+							// System.out is synchronized: with many short jobs, the threads would wait for each
+							// other to print. The AsyncLog writes the lines in a background thread.
+							AsyncLog.out().printf("Arguments: a=%.2f b=%.2f%n", a, b);
 
 							return Math.sin(a) / Math.sqrt(b);
 						}
@@ -83,6 +87,9 @@ public class ExecutorManyCallables {
 		try {
 			final List<Future<Double>> futures = es.invokeAll(jobs);
 
+			// The jobs wrote their arguments in the AsyncLog: wait until they are printed, before the results
+			AsyncLog.out().flush();
+
 			// We don't need the Executor anymore, we can shut it down
 			es.shutdown();
 
@@ -1,6 +1,5 @@
 import java.util.ArrayList;
 import java.util.List;
-import java.util.Random;
 import java.util.concurrent.*;
 
 /**
@@ -42,15 +41,18 @@ public class ExecutorManyJobs {
 		// First, let's use a random generator to build a list of arguments. To keep it easy, we are building a list
 		// of arrays of double of length 2.
 
-		Random r = new Random(42);
+		// RandomArguments generates the arguments in parallel chunks, each one with its own generator: the values are
+		// the same for the same seed, no matter how many threads are used.
+		RandomArguments r = new RandomArguments(42);
+
+		// We are going to generate 20 pair of doubles, in two columns: the first values and the second values
+		double[][] columns = r.columns(20);
 
 		List<double[]> arguments = new ArrayList<>();
 
-		// this generates a list of int from 1 to 20
-		for (int i = 1; i < 21; i++) {
-			// We are going to generate 20 pair of doubles
-			double a = r.nextDouble();
-			double b = r.nextDouble();
+		for (int i = 0; i < 20; i++) {
+			double a = columns[0][i];
+			double b = columns[1][i];
 			double[] array = {a, b};
 			arguments.add(array);
 		}
@@ -70,6 +72,9 @@ public class ExecutorManyJobs {
 		try {
 			final List<Future<Double>> futures = es.invokeAll(jobs);
 
+			// The jobs wrote their arguments in the AsyncLog: wait until they are printed, before the results
+			AsyncLog.out().flush();
+
 			// We don't need the Executor anymore, we can shut it down
 			es.shutdown();
 
@@ -0,0 +1,54 @@
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.*;
+
+/**
+ * Project: lambda-tricks
+ */
+public class ExecutorMemoizing {
+
+	/**
+	 * In the {@link ExecutorManyJobs} example all the arguments are different. Here the jobs use only a few pairs of
+	 * arguments, and some pairs are much more frequent than the others: with a {@link MemoizingCache} in front of the
+	 * jobs, each pair is computed only once while it stays in the cache, even when many threads ask for it at the
+	 * same time.
+	 * <p>
+	 * Each {@link Job} prints its arguments when it is computed: the lines "Arguments: ..." are the misses of the
+	 * cache.
+	 *
+	 * @param args ignored
+	 */
+	public static void main(String[] args) throws InterruptedException, ExecutionException {
+
+		final int threads = Math.max(1, Runtime.getRuntime().availableProcessors() - 1);
+		final ExecutorService es = Executors.newFixedThreadPool(threads);
+
+		// 30 distinct pairs of arguments...
+		final double[][] columns = new RandomArguments(42).columns(30);
+
+		// ...and a cache that can keep only 10 of them
+		final MemoizingCache<Job, Double> cache = new MemoizingCache<>(10);
+
+		final SplittableRandom r = new SplittableRandom(42);
+		final List<Callable<Double>> jobs = new ArrayList<>();
+		for (int i = 0; i < 500; i++) {
+			// The pair k is chosen with probability proportional to 1/(k+1): the first pairs repeat very often
+			final int k = (int) Math.min(29, Math.exp(r.nextDouble() * Math.log(31)) - 1);
+			final Job job = new Job(new double[]{columns[0][k], columns[1][k]});
+
+			// Two equal jobs have the same key in the cache
+			jobs.add(cache.memoize(job, job));
+		}
+
+		double sum = 0.0;
+		for (Future<Double> future : es.invokeAll(jobs))
+			sum += future.get();
+
+		es.shutdown();
+		AsyncLog.out().flush();
+
+		System.out.printf("Sum: %.6f%n", sum);
+		System.out.println(cache);
+	}
+}
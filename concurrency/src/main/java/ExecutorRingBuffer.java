@@ -0,0 +1,58 @@
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.DoubleAdder;
+
+/**
+ * Project: lambda-tricks
+ */
+public class ExecutorRingBuffer {
+
+	/**
+	 * The jobs of the {@link ExecutorManyJobs} example are so small that most of the time is spent in the queue of
+	 * the executor. Here many small jobs are executed with the fixed pool of the other examples, and with a
+	 * {@link RingBufferExecutor} for each {@link RingBufferExecutor.WaitStrategy}.
+	 * <p>
+	 * <b>NOTE</b>: with {@link RingBufferExecutor.WaitStrategy#BUSY_SPIN} each idle worker uses a full core, use it
+	 * only with fewer workers than cores.
+	 *
+	 * @param args optional number of jobs (default 1 million)
+	 */
+	public static void main(String[] args) throws InterruptedException {
+
+		final int n = args.length > 0 ? Integer.parseInt(args[0]) : 1_000_000;
+		final int threads = Math.max(1, Runtime.getRuntime().availableProcessors() - 1);
+
+		System.out.println("Jobs: " + n + ", threads: " + threads);
+
+		final double[][] columns = new RandomArguments(42).columns(n);
+
+		run("Fixed pool", Executors.newFixedThreadPool(threads), columns);
+
+		for (RingBufferExecutor.WaitStrategy strategy : RingBufferExecutor.WaitStrategy.values())
+			run("Ring " + strategy, new RingBufferExecutor(threads, 4096, strategy), columns);
+	}
+
+	private static void run(String name, ExecutorService es, double[][] columns) throws InterruptedException {
+		final int n = columns[0].length;
+		final DoubleAdder sum = new DoubleAdder();
+		final CountDownLatch done = new CountDownLatch(n);
+
+		final long start = System.nanoTime();
+
+		for (int i = 0; i < n; i++) {
+			final double a = columns[0][i];
+			final double b = columns[1][i];
+			es.execute(() -> {
+				sum.add(Job.evaluate(a, b));
+				done.countDown();
+			});
+		}
+		done.await();
+
+		final long time = System.nanoTime() - start;
+
+		es.shutdown();
+		es.awaitTermination(1, TimeUnit.MINUTES);
+
+		System.out.printf("%-16s %8.2fms %12.0f jobs/s (sum=%.3f)%n", name, time / 1e6, n / (time / 1e9), sum.sum());
+	}
+}
@@ -0,0 +1,127 @@
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Project: lambda-tricks
+ * <p>
+ * Immutable snapshot of the counters and latencies of an {@link InstrumentedExecutorService}.
+ */
+public final class ExecutorStats {
+
+	private final long timestamp;
+	private final long submitted;
+	private final long completed;
+	private final long failed;
+	private final long rejected;
+	private final long queued;
+	private final long active;
+	private final LatencyHistogram.Snapshot queueWait;
+	private final LatencyHistogram.Snapshot execution;
+	private final LatencyHistogram.Snapshot endToEnd;
+
+	ExecutorStats(
+			long timestamp, long submitted, long completed, long failed, long rejected, long queued, long active,
+			LatencyHistogram.Snapshot queueWait,
+			LatencyHistogram.Snapshot execution,
+			LatencyHistogram.Snapshot endToEnd
+	) {
+		this.timestamp = timestamp;
+		this.submitted = submitted;
+		this.completed = completed;
+		this.failed = failed;
+		this.rejected = rejected;
+		this.queued = queued;
+		this.active = active;
+		this.queueWait = queueWait;
+		this.execution = execution;
+		this.endToEnd = endToEnd;
+	}
+
+	/**
+	 * @return the {@link System#nanoTime()} of the snapshot
+	 */
+	public long timestamp() {
+		return timestamp;
+	}
+
+	public long submitted() {
+		return submitted;
+	}
+
+	public long completed() {
+		return completed;
+	}
+
+	/**
+	 * @return the number of tasks that terminated with an exception, also the ones submitted with
+	 * <code>submit()</code> or <code>invokeAll()</code>, that keep their exception in the
+	 * {@link java.util.concurrent.Future}
+	 */
+	public long failed() {
+		return failed;
+	}
+
+	public long rejected() {
+		return rejected;
+	}
+
+	/**
+	 * @return the number of tasks waiting in the queue of the executor
+	 */
+	public long queued() {
+		return queued;
+	}
+
+	/**
+	 * @return the number of tasks running
+	 */
+	public long active() {
+		return active;
+	}
+
+	/**
+	 * @return time between the submission and the start of a task
+	 */
+	public LatencyHistogram.Snapshot queueWait() {
+		return queueWait;
+	}
+
+	/**
+	 * @return time between the start and the end of a task
+	 */
+	public LatencyHistogram.Snapshot execution() {
+		return execution;
+	}
+
+	/**
+	 * @return time between the submission and the end of a task
+	 */
+	public LatencyHistogram.Snapshot endToEnd() {
+		return endToEnd;
+	}
+
+	/**
+	 * @param previous an older snapshot of the same executor
+	 * @return the number of tasks completed per second between the two snapshots
+	 */
+	public double throughputSince(ExecutorStats previous) {
+		final long elapsed = timestamp - previous.timestamp;
+		if (elapsed <= 0)
+			return 0.0;
+		return (completed - previous.completed) * (double) TimeUnit.SECONDS.toNanos(1) / elapsed;
+	}
+
+	@Override
+	public String toString() {
+		return "ExecutorStats{" +
+				"submitted=" + submitted +
+				", completed=" + completed +
+				", failed=" + failed +
+				", rejected=" + rejected +
+				", queued=" + queued +
+				", active=" + active +
+				",\n\tqueueWait: " + queueWait +
+				",\n\texecution: " + execution +
+				",\n\tendToEnd:  " + endToEnd +
+				"\n}";
+	}
+}
@@ -0,0 +1,98 @@
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Project: lambda-tricks
+ */
+public class ExecutorTimers {
+
+	/**
+	 * In the {@link ExecutorRunnable} and {@link ExecutorCallable} examples a job waits with
+	 * <code>Thread.sleep()</code>, and the thread cannot do anything else in the meantime. To run something later it
+	 * is better to schedule it: here many timers, like the timeouts of many requests, are scheduled with a
+	 * {@link ScheduledThreadPoolExecutor} and with a {@link TimingWheel}. Half of the timers are cancelled before they
+	 * expire, like timeouts of requests that completed in time; the others run on the same fixed pool.
+	 * <p>
+	 * For each scheduler we measure the time to schedule and to cancel the timers, and how late the timers run.
+	 *
+	 * @param args optional number of timers (default 100000)
+	 */
+	public static void main(String[] args) throws InterruptedException {
+
+		final int n = args.length > 0 ? Integer.parseInt(args[0]) : 100_000;
+		final int threads = Math.max(1, Runtime.getRuntime().availableProcessors() - 1);
+
+		System.out.println("Timers: " + n + ", half cancelled, delays from 1 to 2 seconds");
+
+		final ExecutorService es = Executors.newFixedThreadPool(threads);
+
+		// The same delays for both schedulers
+		final SplittableRandom r = new SplittableRandom(42);
+		final long[] delays = new long[n];
+		for (int i = 0; i < n; i++)
+			delays[i] = 1_000 + r.nextInt(1_000);
+
+		// The ScheduledThreadPoolExecutor runs the tasks on its own thread: the task hands the job to the pool
+		final ScheduledThreadPoolExecutor stpe = new ScheduledThreadPoolExecutor(1);
+		stpe.setRemoveOnCancelPolicy(true);
+		run("ScheduledThreadPool", delays, (task, delay) -> {
+			final ScheduledFuture<?> future = stpe.schedule(() -> es.execute(task), delay, TimeUnit.MILLISECONDS);
+			return () -> future.cancel(false);
+		});
+		stpe.shutdown();
+
+		final TimingWheel wheel = new TimingWheel(es, 10, TimeUnit.MILLISECONDS, 512);
+		run("TimingWheel", delays, (task, delay) -> {
+			final TimingWheel.Timeout timeout = wheel.schedule(task, delay, TimeUnit.MILLISECONDS);
+			return timeout::cancel;
+		});
+		wheel.stop();
+
+		es.shutdown();
+	}
+
+	/**
+	 * Schedules a task, and returns how to cancel it.
+	 */
+	@FunctionalInterface
+	private interface Scheduler {
+		Runnable schedule(Runnable task, long delayMillis);
+	}
+
+	private static void run(String name, long[] delays, Scheduler scheduler) throws InterruptedException {
+		final int n = delays.length;
+		final CountDownLatch done = new CountDownLatch(n - n / 2);
+		final LongAdder lateness = new LongAdder();
+		final AtomicLong maxLateness = new AtomicLong();
+
+		final List<Runnable> cancels = new ArrayList<>(n);
+
+		long start = System.nanoTime();
+		for (long delay : delays) {
+			final long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(delay);
+			cancels.add(scheduler.schedule(() -> {
+				final long late = System.nanoTime() - deadline;
+				lateness.add(late);
+				maxLateness.accumulateAndGet(late, Math::max);
+				done.countDown();
+			}, delay));
+		}
+		final long scheduleTime = System.nanoTime() - start;
+
+		start = System.nanoTime();
+		for (int i = 0; i < n; i += 2)
+			cancels.get(i).run();
+		final long cancelTime = System.nanoTime() - start;
+
+		done.await();
+
+		System.out.printf("%-20s schedule: %8.2fms  cancel: %8.2fms  late: mean %6.2fms max %6.2fms%n",
+				name, scheduleTime / 1e6, cancelTime / 1e6,
+				lateness.sum() / 1e6 / (n - n / 2), maxLateness.get() / 1e6
+		);
+	}
+}
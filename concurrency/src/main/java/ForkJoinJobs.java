@@ -0,0 +1,199 @@
+import java.nio.DoubleBuffer;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Project: lambda-tricks
+ * <p>
+ * Runs sets of jobs on a {@link ForkJoinPool}. A fixed thread pool has a single queue shared by all the threads: each
+ * job is a lock on the queue, and if the jobs are split in a few big batches, a thread with the slow jobs finishes
+ * long after the others.
+ * <p>
+ * Here a range of jobs is split in two halves, recursively, until it is smaller than a threshold. Each thread of the
+ * pool has its own queue of halves: it works on the most recent ones, while the idle threads steal the oldest, and
+ * biggest, halves from the busy threads. When the cost of the jobs is uneven, the threads with the cheap jobs keep
+ * stealing work until everything is done.
+ * <p>
+ * When a job fails, the first failure is kept aside: the pool rebuilds the exceptions of the stolen tasks when they
+ * cross the threads, and what comes out of the pool depends on which thread ran the failed job. The caller always
+ * receives the original failure.
+ */
+public class ForkJoinJobs {
+
+	/**
+	 * Default number of jobs below which a range is executed by a single thread.
+	 */
+	public static final int DEFAULT_THRESHOLD = 16;
+
+	private final ForkJoinPool pool;
+	private final int threshold;
+
+	/**
+	 * Uses the {@link ForkJoinPool#commonPool()} and the {@link #DEFAULT_THRESHOLD}.
+	 */
+	public ForkJoinJobs() {
+		this(ForkJoinPool.commonPool(), DEFAULT_THRESHOLD);
+	}
+
+	/**
+	 * @param pool      pool that executes the jobs
+	 * @param threshold number of jobs below which a range is not split anymore
+	 */
+	public ForkJoinJobs(ForkJoinPool pool, int threshold) {
+		if (threshold <= 0)
+			throw new IllegalArgumentException("Threshold must be positive: " + threshold);
+
+		this.pool = pool;
+		this.threshold = threshold;
+	}
+
+	/**
+	 * Executes all the jobs and waits for their results.
+	 *
+	 * @param jobs jobs to execute
+	 * @param <T>  type of the results
+	 * @return the results, in the order of the jobs
+	 * @throws CompletionException if a job throws an exception, with that exception as the cause
+	 */
+	public <T> List<T> invokeAll(List<? extends Callable<T>> jobs) {
+		final Object[] results = new Object[jobs.size()];
+		final AtomicReference<Throwable> failure = new AtomicReference<>();
+		try {
+			pool.invoke(new JobsTask<>(jobs, results, failure, 0, jobs.size()));
+		} catch (RuntimeException | Error e) {
+			throw original(failure, e);
+		}
+
+		@SuppressWarnings("unchecked") final List<T> list = (List<T>) Arrays.asList(results);
+		return list;
+	}
+
+	/**
+	 * Evaluates {@link Job#evaluate(double, double)} for all the arguments.
+	 *
+	 * @param arguments columns with the arguments
+	 * @param results   column where the results will be written, with the same size of the arguments
+	 * @return the number of evaluated arguments
+	 */
+	public int evaluate(ArgumentColumns arguments, DoubleBuffer results) {
+		final AtomicReference<Throwable> failure = new AtomicReference<>();
+		try {
+			return pool.invoke(new RangeTask(arguments, results, failure, 0, arguments.size()));
+		} catch (RuntimeException | Error e) {
+			throw original(failure, e);
+		}
+	}
+
+	/**
+	 * @param failure first failure of a job, if any
+	 * @param thrown  exception thrown by the pool
+	 * @return the original failure, wrapped in a {@link CompletionException} if it is a checked exception
+	 */
+	private static RuntimeException original(AtomicReference<Throwable> failure, Throwable thrown) {
+		final Throwable original = failure.get() != null ? failure.get() : thrown;
+
+		if (original instanceof Error)
+			throw (Error) original;
+		if (original instanceof RuntimeException)
+			return (RuntimeException) original;
+		return new CompletionException(original);
+	}
+
+	/**
+	 * Calls the jobs of a range and stores their results.
+	 */
+	private final class JobsTask<T> extends RecursiveTask<Integer> {
+
+		private static final long serialVersionUID = 1L;
+
+		private final List<? extends Callable<T>> jobs;
+		private final Object[] results;
+		private final AtomicReference<Throwable> failure;
+		private final int from;
+		private final int to;
+
+		JobsTask(List<? extends Callable<T>> jobs, Object[] results, AtomicReference<Throwable> failure, int from,
+		         int to) {
+			this.jobs = jobs;
+			this.results = results;
+			this.failure = failure;
+			this.from = from;
+			this.to = to;
+		}
+
+		@Override
+		protected Integer compute() {
+			if (to - from <= threshold) {
+				for (int i = from; i < to; i++) {
+					try {
+						results[i] = jobs.get(i).call();
+					} catch (RuntimeException | Error e) {
+						failure.compareAndSet(null, e);
+						throw e;
+					} catch (Exception e) {
+						failure.compareAndSet(null, e);
+						throw new CompletionException(e);
+					}
+				}
+				return to - from;
+			}
+
+			final int mid = (from + to) >>> 1;
+			final JobsTask<T> left = new JobsTask<>(jobs, results, failure, from, mid);
+			left.fork();
+			final int right = new JobsTask<>(jobs, results, failure, mid, to).compute();
+			return left.join() + right;
+		}
+	}
+
+	/**
+	 * Evaluates a range of arguments with a {@link BatchJob}.
+	 */
+	private final class RangeTask extends RecursiveTask<Integer> {
+
+		private static final long serialVersionUID = 1L;
+
+		private final ArgumentColumns arguments;
+		private final DoubleBuffer results;
+		private final AtomicReference<Throwable> failure;
+		private final int from;
+		private final int to;
+
+		RangeTask(ArgumentColumns arguments, DoubleBuffer results, AtomicReference<Throwable> failure, int from,
+		          int to) {
+			this.arguments = arguments;
+			this.results = results;
+			this.failure = failure;
+			this.from = from;
+			this.to = to;
+		}
+
+		@Override
+		protected Integer compute() {
+			if (to - from <= threshold) {
+				try {
+					return new BatchJob(arguments, results, from, to).call();
+				} catch (RuntimeException | Error e) {
+					failure.compareAndSet(null, e);
+					throw e;
+				}
+			}
+
+			final int mid = (from + to) >>> 1;
+			final RangeTask left = new RangeTask(arguments, results, failure, from, mid);
+			left.fork();
+			final int right = new RangeTask(arguments, results, failure, mid, to).compute();
+			return left.join() + right;
+		}
+	}
+
+	@Override
+	public String toString() {
+		return "ForkJoinJobs{parallelism=" + pool.getParallelism() + ", threshold=" + threshold + "}";
+	}
+}
@@ -0,0 +1,283 @@
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Project: lambda-tricks
+ * <p>
+ * Facade over an {@link ExecutorService} that fights the stragglers: when a job takes much more than usual, because of
+ * a pause of the garbage collector or a slow machine, a second copy of the same job is started, the first copy that
+ * finishes gives the result, and the other one is cancelled. The jobs must be idempotent: running them twice must be
+ * harmless.
+ * <p>
+ * The time of the jobs is recorded in a {@link LatencyHistogram}. When a job is submitted, a timer is scheduled on a
+ * {@link TimingWheel} at the given percentile of the recorded times: if the job is still running when the timer
+ * expires, the copy is started. With the 95th percentile, only about 5% of the jobs are duplicated, but a slow job
+ * no longer sets the completion time of a whole set of jobs.
+ * <p>
+ * A failed copy does not complete the job while the other copy is running. No copy is started before
+ * {@link #MIN_SAMPLES} jobs completed, since there is no percentile to compare with. The recorded time of a job goes
+ * from its submission to the first copy that completes: the time of a copy from its own start would be shorter, and
+ * would make the copies start earlier and earlier.
+ * <p>
+ * Cancelling the future returned by {@link #submit(Callable)} cancels the timer and both copies.
+ */
+public class HedgingExecutor {
+
+	/**
+	 * Number of recorded times needed before starting copies.
+	 */
+	static final int MIN_SAMPLES = 20;
+
+	/**
+	 * The percentile is computed again every this number of recorded times.
+	 */
+	static final int REFRESH_INTERVAL = 32;
+
+	private final ExecutorService delegate;
+	private final TimingWheel wheel;
+	private final double percentile;
+
+	private final LatencyHistogram latencies = new LatencyHistogram();
+	private final AtomicInteger recorded = new AtomicInteger();
+	private volatile long hedgeNanos = -1;
+
+	private final LongAdder submitted = new LongAdder();
+	private final LongAdder hedges = new LongAdder();
+	private final LongAdder hedgeWins = new LongAdder();
+
+	/**
+	 * @param delegate   executor that runs the jobs and their copies
+	 * @param wheel      scheduler of the timers that start the copies
+	 * @param percentile percentile of the time of the jobs after which a copy is started, between 0 and 100
+	 */
+	public HedgingExecutor(ExecutorService delegate, TimingWheel wheel, double percentile) {
+		if (percentile <= 0.0 || percentile >= 100.0)
+			throw new IllegalArgumentException("Percentile out of (0, 100): " + percentile);
+
+		this.delegate = delegate;
+		this.wheel = wheel;
+		this.percentile = percentile;
+	}
+
+	/**
+	 * A submitted job, with its copies.
+	 */
+	private static final class Hedged<T> {
+
+		final Callable<T> task;
+		final CompletableFuture<T> result = new CompletableFuture<>();
+		final AtomicInteger running = new AtomicInteger();
+		final long submittedAt = System.nanoTime();
+
+		volatile Throwable failure;
+
+		volatile Future<?> primary;
+		volatile Future<?> copy;
+		volatile TimingWheel.Timeout timer;
+
+		Hedged(Callable<T> task) {
+			this.task = task;
+		}
+	}
+
+	/**
+	 * Submits a job.
+	 *
+	 * @param task idempotent job to execute
+	 * @param <T>  type of the result
+	 * @return the future of the result of the first copy that completes
+	 * @throws RejectedExecutionException if the executor does not accept the job
+	 */
+	public <T> CompletableFuture<T> submit(Callable<T> task) {
+		final Hedged<T> hedged = new Hedged<>(task);
+		submitted.increment();
+
+		// CompletableFuture.cancel() does not stop the computation: the running copies must be cancelled here
+		hedged.result.whenComplete((value, e) -> {
+			if (hedged.result.isCancelled())
+				cancel(hedged);
+		});
+
+		hedged.primary = launch(hedged, false);
+		// The caller could have cancelled the job before the primary copy was assigned
+		if (hedged.result.isCancelled())
+			hedged.primary.cancel(true);
+
+		final long delay = hedgeNanos;
+		if (delay >= 0 && !hedged.result.isDone()) {
+			hedged.timer = wheel.schedule(() -> hedge(hedged), delay, TimeUnit.NANOSECONDS);
+			// The job could have completed before the timer was assigned
+			if (hedged.result.isDone())
+				hedged.timer.cancel();
+		}
+
+		return hedged.result;
+	}
+
+	/**
+	 * Executes all the jobs and waits until they are done.
+	 *
+	 * @param tasks idempotent jobs to execute
+	 * @param <T>   type of the results
+	 * @return the futures of the jobs, in the same order, all done
+	 * @throws InterruptedException if interrupted while waiting: the jobs not yet done are cancelled
+	 */
+	public <T> List<Future<T>> invokeAll(Collection<? extends Callable<T>> tasks) throws InterruptedException {
+		final List<Future<T>> futures = new ArrayList<>(tasks.size());
+		for (Callable<T> task : tasks)
+			futures.add(submit(task));
+
+		try {
+			for (Future<T> future : futures) {
+				try {
+					future.get();
+				} catch (ExecutionException | CancellationException e) {
+					// The caller finds it in the future
+				}
+			}
+		} catch (InterruptedException e) {
+			for (Future<T> future : futures)
+				future.cancel(true);
+			throw e;
+		}
+
+		return futures;
+	}
+
+	private <T> Future<?> launch(Hedged<T> hedged, boolean copy) {
+		hedged.running.incrementAndGet();
+
+		try {
+			return delegate.submit(() -> {
+				try {
+					final T value = hedged.task.call();
+
+					if (hedged.result.complete(value)) {
+						record(System.nanoTime() - hedged.submittedAt);
+						if (copy)
+							hedgeWins.increment();
+						finish(hedged, copy);
+					}
+
+				} catch (Throwable t) {
+					// Fail only if there is no other copy running: the loser that is cancelled also ends here. An
+					// error fails the job at once
+					hedged.failure = t;
+					final boolean last = hedged.running.decrementAndGet() == 0;
+					if ((last || t instanceof Error) && hedged.result.completeExceptionally(t))
+						finish(hedged, copy);
+					if (t instanceof Error)
+						throw (Error) t;
+				}
+			});
+		} catch (RejectedExecutionException e) {
+			// This copy will never run: if the other one already failed, the job fails now
+			if (hedged.running.decrementAndGet() == 0) {
+				final Throwable failure = hedged.failure;
+				hedged.result.completeExceptionally(failure != null ? failure : e);
+			}
+			throw e;
+		}
+	}
+
+	/**
+	 * Called by the timer: the job is slower than the percentile.
+	 */
+	private <T> void hedge(Hedged<T> hedged) {
+		if (hedged.result.isDone())
+			return;
+
+		try {
+			hedged.copy = launch(hedged, true);
+		} catch (RejectedExecutionException e) {
+			// The executor is shut down: the job goes on with the original copy only
+			return;
+		}
+		hedges.increment();
+
+		// The original job could have completed while the copy was submitted
+		if (hedged.result.isDone())
+			hedged.copy.cancel(true);
+	}
+
+	/**
+	 * Cancels the timer and the copy that did not win.
+	 */
+	private <T> void finish(Hedged<T> hedged, boolean copyWon) {
+		final TimingWheel.Timeout timer = hedged.timer;
+		if (timer != null)
+			timer.cancel();
+
+		final Future<?> loser = copyWon ? hedged.primary : hedged.copy;
+		if (loser != null)
+			loser.cancel(true);
+	}
+
+	/**
+	 * Cancels the timer and both copies, after the caller cancelled the job.
+	 */
+	private <T> void cancel(Hedged<T> hedged) {
+		final TimingWheel.Timeout timer = hedged.timer;
+		if (timer != null)
+			timer.cancel();
+
+		final Future<?> primary = hedged.primary;
+		if (primary != null)
+			primary.cancel(true);
+
+		final Future<?> copy = hedged.copy;
+		if (copy != null)
+			copy.cancel(true);
+	}
+
+	private void record(long nanos) {
+		latencies.record(nanos);
+
+		final int count = recorded.incrementAndGet();
+		if (count == MIN_SAMPLES || count > MIN_SAMPLES && count % REFRESH_INTERVAL == 0)
+			hedgeNanos = latencies.snapshot().percentile(percentile);
+	}
+
+	/**
+	 * @return the current time after which a copy of a job is started, in nanoseconds, or -1 without enough samples
+	 */
+	public long hedgeNanos() {
+		return hedgeNanos;
+	}
+
+	/**
+	 * @return the times of the jobs, in nanoseconds
+	 */
+	public LatencyHistogram.Snapshot latencies() {
+		return latencies.snapshot();
+	}
+
+	public long submitted() {
+		return submitted.sum();
+	}
+
+	/**
+	 * @return the number of copies started
+	 */
+	public long hedged() {
+		return hedges.sum();
+	}
+
+	/**
+	 * @return the number of copies that completed before the original job
+	 */
+	public long hedgeWins() {
+		return hedgeWins.sum();
+	}
+
+	@Override
+	public String toString() {
+		return String.format("HedgingExecutor{p%.1f=%s, submitted=%d, hedged=%d, hedgeWins=%d}",
+				percentile, LatencyHistogram.Snapshot.format(Math.max(0, hedgeNanos)), submitted(), hedged(),
+				hedgeWins());
+	}
+}
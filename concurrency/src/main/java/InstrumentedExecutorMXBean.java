@@ -0,0 +1,31 @@
+/**
+ * Project: lambda-tricks
+ * <p>
+ * JMX view of an {@link InstrumentedExecutorService}, visible in tools like JConsole or VisualVM. The latencies are
+ * exported as composite values with count, mean, percentiles, and max, in nanoseconds.
+ */
+public interface InstrumentedExecutorMXBean {
+
+	long getSubmitted();
+
+	long getCompleted();
+
+	long getFailed();
+
+	long getRejected();
+
+	long getQueued();
+
+	long getActive();
+
+	LatencyHistogram.Snapshot getQueueWait();
+
+	LatencyHistogram.Snapshot getExecution();
+
+	LatencyHistogram.Snapshot getEndToEnd();
+
+	/**
+	 * Removes all the recorded latencies. The counters are not changed.
+	 */
+	void resetLatencies();
+}
@@ -0,0 +1,313 @@
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Consumer;
+
+/**
+ * Project: lambda-tricks
+ * <p>
+ * Decorator of an {@link ExecutorService} that measures where the time goes: how long the tasks wait in the queue,
+ * how long they run, how many are queued or running, and how many are rejected.
+ * <p>
+ * Each task is wrapped in a {@link Runnable} that remembers its submission time. The counters are {@link LongAdder}s
+ * and the latencies are {@link LatencyHistogram}s: on the submit path there is one {@link System#nanoTime()}, one
+ * small allocation, and one increment, without locks. The statistics can be read with {@link #snapshot()}, reported
+ * periodically with {@link #report(long, TimeUnit, Consumer)}, or exported through JMX with {@link #register(String)}.
+ * <p>
+ * The tasks of <code>submit()</code> and <code>invokeAll()</code> are {@link FutureTask}s, that keep the exception of
+ * the task in the future instead of throwing it: they are created by {@link #newTaskFor(Callable)} with a flag that
+ * tells if the task failed.
+ */
+public class InstrumentedExecutorService extends AbstractExecutorService implements InstrumentedExecutorMXBean {
+
+	private final ExecutorService delegate;
+
+	private final LongAdder submitted = new LongAdder();
+	private final LongAdder completed = new LongAdder();
+	private final LongAdder failed = new LongAdder();
+	private final LongAdder rejected = new LongAdder();
+	private final LongAdder queued = new LongAdder();
+	private final LongAdder active = new LongAdder();
+
+	private final LatencyHistogram queueWait = new LatencyHistogram();
+	private final LatencyHistogram execution = new LatencyHistogram();
+	private final LatencyHistogram endToEnd = new LatencyHistogram();
+
+	private volatile ObjectName objectName;
+	private volatile ScheduledExecutorService reporter;
+
+	/**
+	 * @param delegate executor that runs the tasks
+	 */
+	public InstrumentedExecutorService(ExecutorService delegate) {
+		this.delegate = delegate;
+	}
+
+	/**
+	 * @return an instrumented {@link Executors#newFixedThreadPool(int)}
+	 */
+	public static InstrumentedExecutorService newFixedThreadPool(int threads) {
+		return new InstrumentedExecutorService(Executors.newFixedThreadPool(threads));
+	}
+
+	/**
+	 * @return an instrumented {@link Executors#newSingleThreadExecutor()}
+	 */
+	public static InstrumentedExecutorService newSingleThreadExecutor() {
+		return new InstrumentedExecutorService(Executors.newSingleThreadExecutor());
+	}
+
+	/**
+	 * A {@link FutureTask} that remembers if it completed with an exception.
+	 */
+	private static final class InstrumentedFutureTask<T> extends FutureTask<T> {
+
+		private boolean failed;
+
+		InstrumentedFutureTask(Callable<T> callable) {
+			super(callable);
+		}
+
+		InstrumentedFutureTask(Runnable runnable, T value) {
+			super(runnable, value);
+		}
+
+		@Override
+		protected void setException(Throwable t) {
+			// Called by the thread that runs the task, the same that reads the flag
+			failed = true;
+			super.setException(t);
+		}
+	}
+
+	@Override
+	protected <T> RunnableFuture<T> newTaskFor(Callable<T> callable) {
+		return new InstrumentedFutureTask<>(callable);
+	}
+
+	@Override
+	protected <T> RunnableFuture<T> newTaskFor(Runnable runnable, T value) {
+		return new InstrumentedFutureTask<>(runnable, value);
+	}
+
+	/**
+	 * A task with the time of its submission.
+	 */
+	private final class Task implements Runnable {
+
+		private final Runnable command;
+		private final long submittedAt;
+
+		Task(Runnable command, long submittedAt) {
+			this.command = command;
+			this.submittedAt = submittedAt;
+		}
+
+		@Override
+		public void run() {
+			final long startedAt = System.nanoTime();
+			queued.decrement();
+			active.increment();
+			queueWait.record(startedAt - submittedAt);
+
+			try {
+				command.run();
+				if (command instanceof InstrumentedFutureTask && ((InstrumentedFutureTask<?>) command).failed)
+					failed.increment();
+				else
+					completed.increment();
+			} catch (RuntimeException | Error e) {
+				failed.increment();
+				throw e;
+			} finally {
+				final long endedAt = System.nanoTime();
+				active.decrement();
+				execution.record(endedAt - startedAt);
+				endToEnd.record(endedAt - submittedAt);
+			}
+		}
+	}
+
+	@Override
+	public void execute(Runnable command) {
+		final Task task = new Task(command, System.nanoTime());
+		submitted.increment();
+		queued.increment();
+
+		try {
+			delegate.execute(task);
+		} catch (RejectedExecutionException e) {
+			queued.decrement();
+			rejected.increment();
+			throw e;
+		}
+	}
+
+	/**
+	 * @return a copy of the current counters and latencies
+	 */
+	public ExecutorStats snapshot() {
+		return new ExecutorStats(
+				System.nanoTime(),
+				submitted.sum(), completed.sum(), failed.sum(), rejected.sum(), queued.sum(), active.sum(),
+				queueWait.snapshot(), execution.snapshot(), endToEnd.snapshot()
+		);
+	}
+
+	/**
+	 * Gives a snapshot to the listener at a fixed rate, from a daemon thread, until the executor is shut down.
+	 *
+	 * @param period   time between two snapshots
+	 * @param unit     unit of the period
+	 * @param listener receives the snapshots
+	 * @throws RejectedExecutionException if the executor is already shut down
+	 */
+	public synchronized void report(long period, TimeUnit unit, Consumer<ExecutorStats> listener) {
+		// The reporter is stopped by the shutdown: started after it, it would never stop
+		if (isShutdown())
+			throw new RejectedExecutionException("Executor is shut down");
+
+		if (reporter == null)
+			reporter = Executors.newSingleThreadScheduledExecutor(r -> {
+				final Thread thread = new Thread(r, "executor-stats-reporter");
+				thread.setDaemon(true);
+				return thread;
+			});
+
+		reporter.scheduleAtFixedRate(() -> listener.accept(snapshot()), period, period, unit);
+	}
+
+	/**
+	 * Registers this executor in the platform MBean server, until the executor is shut down.
+	 *
+	 * @param name name of the executor in the JMX tools
+	 * @return the name of the registered MBean
+	 */
+	public synchronized ObjectName register(String name) {
+		try {
+			final ObjectName objectName = new ObjectName("lambda-tricks:type=Executor,name=" + ObjectName.quote(name));
+			ManagementFactory.getPlatformMBeanServer().registerMBean(this, objectName);
+			this.objectName = objectName;
+			return objectName;
+		} catch (JMException e) {
+			throw new IllegalStateException("Cannot register executor " + name, e);
+		}
+	}
+
+	private synchronized void release() {
+		if (reporter != null) {
+			reporter.shutdown();
+			reporter = null;
+		}
+
+		if (objectName != null) {
+			final MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+			try {
+				if (server.isRegistered(objectName))
+					server.unregisterMBean(objectName);
+			} catch (JMException e) {
+				// Nothing to do: the MBean is already gone
+			}
+			objectName = null;
+		}
+	}
+
+	@Override
+	public void shutdown() {
+		delegate.shutdown();
+		release();
+	}
+
+	@Override
+	public List<Runnable> shutdownNow() {
+		final List<Runnable> pending = new ArrayList<>();
+		for (Runnable runnable : delegate.shutdownNow()) {
+			if (runnable instanceof Task) {
+				// These tasks will never run
+				queued.decrement();
+				pending.add(((Task) runnable).command);
+			} else {
+				pending.add(runnable);
+			}
+		}
+		release();
+		return pending;
+	}
+
+	@Override
+	public boolean isShutdown() {
+		return delegate.isShutdown();
+	}
+
+	@Override
+	public boolean isTerminated() {
+		return delegate.isTerminated();
+	}
+
+	@Override
+	public boolean awaitTermination(long timeout, TimeUnit unit) throws InterruptedException {
+		return delegate.awaitTermination(timeout, unit);
+	}
+
+	@Override
+	public long getSubmitted() {
+		return submitted.sum();
+	}
+
+	@Override
+	public long getCompleted() {
+		return completed.sum();
+	}
+
+	@Override
+	public long getFailed() {
+		return failed.sum();
+	}
+
+	@Override
+	public long getRejected() {
+		return rejected.sum();
+	}
+
+	@Override
+	public long getQueued() {
+		return queued.sum();
+	}
+
+	@Override
+	public long getActive() {
+		return active.sum();
+	}
+
+	@Override
+	public LatencyHistogram.Snapshot getQueueWait() {
+		return queueWait.snapshot();
+	}
+
+	@Override
+	public LatencyHistogram.Snapshot getExecution() {
+		return execution.snapshot();
+	}
+
+	@Override
+	public LatencyHistogram.Snapshot getEndToEnd() {
+		return endToEnd.snapshot();
+	}
+
+	@Override
+	public void resetLatencies() {
+		queueWait.reset();
+		execution.reset();
+		endToEnd.reset();
+	}
+
+	@Override
+	public String toString() {
+		return "InstrumentedExecutorService{" + delegate + "}";
+	}
+}
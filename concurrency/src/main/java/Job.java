@@ -1,3 +1,4 @@
+import java.util.Objects;
 import java.util.concurrent.Callable;
 
 /**
@@ -19,9 +20,36 @@ public class Job implements Callable<Double> {
 
 	@Override
 	public Double call() {
-		// The body of our job
-		System.out.printf("Arguments: a=%.2f b=%.2f%n", a, b);
+		// The body of our job: the log does not block the other jobs, like System.out would do
+		AsyncLog.out().printf("Arguments: a=%.2f b=%.2f%n", a, b);
 
+		return evaluate(a, b);
+	}
+
+	/**
+	 * Two jobs are equal if they have the same arguments, so they can be used as keys of a {@link MemoizingCache}.
+	 */
+	@Override
+	public boolean equals(Object o) {
+		if (this == o) return true;
+		if (o == null || getClass() != o.getClass()) return false;
+		Job job = (Job) o;
+		return Double.compare(job.a, a) == 0 && Double.compare(job.b, b) == 0;
+	}
+
+	@Override
+	public int hashCode() {
+		return Objects.hash(a, b);
+	}
+
+	/**
+	 * The task of the job, shared with {@link BatchJob}.
+	 *
+	 * @param a first argument
+	 * @param b second argument
+	 * @return the result of the job for the given arguments
+	 */
+	public static double evaluate(double a, double b) {
 		return Math.sin(a) / Math.sqrt(b);
 	}
 }
@@ -0,0 +1,176 @@
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Project: lambda-tricks
+ * <p>
+ * Lock-free histogram of latencies in nanoseconds, that many threads can update at the same time.
+ * <p>
+ * The buckets are log-linear: each power of two is divided in {@link #SUB_BUCKETS} buckets of the same width, so the
+ * relative error of a percentile is at most 1/{@link #SUB_BUCKETS} (about 6%) from nanoseconds to hours, with less
+ * than a thousand counters. Recording a value is a few bit operations and an atomic increment, without locks or
+ * allocations.
+ */
+public class LatencyHistogram {
+
+	static final int SUB_BUCKET_BITS = 4;
+	static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;
+
+	/**
+	 * Buckets for all the positive longs: values below {@link #SUB_BUCKETS} have one bucket each, then each power of
+	 * two from 2^{@link #SUB_BUCKET_BITS} to 2^62 has {@link #SUB_BUCKETS} buckets.
+	 */
+	static final int BUCKETS = (64 - SUB_BUCKET_BITS) * SUB_BUCKETS;
+
+	private final AtomicLongArray counts = new AtomicLongArray(BUCKETS);
+	private final LongAdder count = new LongAdder();
+	private final LongAdder sum = new LongAdder();
+
+	/**
+	 * @param nanos latency to record, negative values are recorded as 0
+	 */
+	public void record(long nanos) {
+		final long value = Math.max(0, nanos);
+		counts.incrementAndGet(bucket(value));
+		count.increment();
+		sum.add(value);
+	}
+
+	public long count() {
+		return count.sum();
+	}
+
+	/**
+	 * @return an immutable copy of the current state. Since the values are recorded while the copy is made, the copy
+	 * can contain only a part of the values recorded at the same time.
+	 */
+	public Snapshot snapshot() {
+		final long[] copy = new long[BUCKETS];
+		long total = 0;
+		for (int i = 0; i < BUCKETS; i++) {
+			copy[i] = counts.get(i);
+			total += copy[i];
+		}
+		return new Snapshot(copy, total, total == 0 ? 0.0 : (double) sum.sum() / count.sum());
+	}
+
+	/**
+	 * Removes all the recorded values. Values recorded at the same time can be removed or not.
+	 */
+	public void reset() {
+		for (int i = 0; i < BUCKETS; i++)
+			counts.set(i, 0);
+		count.reset();
+		sum.reset();
+	}
+
+	static int bucket(long value) {
+		if (value < SUB_BUCKETS)
+			return (int) value;
+
+		final int exponent = 63 - Long.numberOfLeadingZeros(value);
+		final int sub = (int) (value >>> (exponent - SUB_BUCKET_BITS)) & (SUB_BUCKETS - 1);
+		return (exponent - SUB_BUCKET_BITS + 1) * SUB_BUCKETS + sub;
+	}
+
+	/**
+	 * @return the highest value that falls in the given bucket
+	 */
+	static long highestValue(int bucket) {
+		if (bucket < SUB_BUCKETS)
+			return bucket;
+
+		final int shift = bucket / SUB_BUCKETS - 1;
+		final long lowest = (long) (SUB_BUCKETS + bucket % SUB_BUCKETS) << shift;
+		return lowest + (1L << shift) - 1;
+	}
+
+	@Override
+	public String toString() {
+		return snapshot().toString();
+	}
+
+	/**
+	 * Immutable state of a histogram. The getters follow the JavaBeans convention, so the snapshot can be exported by
+	 * an MXBean as a composite value.
+	 */
+	public static final class Snapshot {
+
+		private final long[] counts;
+		private final long count;
+		private final double mean;
+
+		private Snapshot(long[] counts, long count, double mean) {
+			this.counts = counts;
+			this.count = count;
+			this.mean = mean;
+		}
+
+		public long getCount() {
+			return count;
+		}
+
+		/**
+		 * @return the mean of the values, in nanoseconds
+		 */
+		public double getMean() {
+			return mean;
+		}
+
+		public long getP50() {
+			return percentile(50.0);
+		}
+
+		public long getP90() {
+			return percentile(90.0);
+		}
+
+		public long getP99() {
+			return percentile(99.0);
+		}
+
+		public long getP999() {
+			return percentile(99.9);
+		}
+
+		public long getMax() {
+			return percentile(100.0);
+		}
+
+		/**
+		 * @param percentile percentile between 0 and 100
+		 * @return the highest value of the bucket that contains the percentile, in nanoseconds, or 0 if empty
+		 */
+		public long percentile(double percentile) {
+			if (percentile < 0.0 || percentile > 100.0)
+				throw new IllegalArgumentException("Percentile out of [0, 100]: " + percentile);
+			if (count == 0)
+				return 0;
+
+			final long rank = Math.max(1, (long) Math.ceil(percentile / 100.0 * count));
+			long seen = 0;
+			for (int i = 0; i < counts.length; i++) {
+				seen += counts[i];
+				if (seen >= rank)
+					return highestValue(i);
+			}
+			return highestValue(counts.length - 1);
+		}
+
+		@Override
+		public String toString() {
+			return String.format("count=%d mean=%s p50=%s p90=%s p99=%s p99.9=%s max=%s",
+					count, format((long) mean), format(getP50()), format(getP90()), format(getP99()), format(getP999()),
+					format(getMax()));
+		}
+
+		static String format(long nanos) {
+			if (nanos < TimeUnit.MICROSECONDS.toNanos(10))
+				return nanos + "ns";
+			if (nanos < TimeUnit.MILLISECONDS.toNanos(10))
+				return nanos / 1_000 + "us";
+			return nanos / 1_000_000 + "ms";
+		}
+	}
+}
@@ -0,0 +1,332 @@
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Project: lambda-tricks
+ * <p>
+ * Concurrent cache of the results of the jobs, with a max number of entries.
+ * <p>
+ * The values are stored as {@link CompletableFuture}s in a {@link ConcurrentHashMap}: the first thread that asks for a
+ * missing key puts a future in the map and computes the value, while the other threads that ask for the same key in
+ * the meantime wait for the same future. A computation is never done twice at the same time (single-flight). A failed
+ * computation is removed from the cache, so the next request tries again.
+ * <p>
+ * When the cache is full, the entry to evict is chosen with a simplified W-TinyLFU policy:
+ * <ul>
+ *     <li>new entries enter a small LRU window (1% of the capacity), that keeps the bursts of new keys;</li>
+ *     <li>an entry that leaves the window is admitted in the main area only if it was requested more often than the
+ *     entry that it would evict, otherwise it is evicted itself;</li>
+ *     <li>the main area is a segmented LRU: a probation segment for the entries seen once, and a protected segment
+ *     (80% of the main area) for the entries requested again;</li>
+ *     <li>the frequencies are estimated with a count-min sketch of 4 rows with small counters, halved periodically so
+ *     that old popular keys are forgotten.</li>
+ * </ul>
+ * The policy is guarded by a lock. A hit updates the policy only if the lock is free: under contention some accesses
+ * are not recorded, but the readers never wait for each other.
+ *
+ * @param <K> type of the keys, with valid <code>equals()</code> and <code>hashCode()</code>
+ * @param <V> type of the values
+ */
+public class MemoizingCache<K, V> {
+
+	static final int MAX_FREQUENCY = 15;
+	static final int SKETCH_DEPTH = 4;
+
+	private final ConcurrentHashMap<K, CompletableFuture<V>> map = new ConcurrentHashMap<>();
+
+	private final ReentrantLock lock = new ReentrantLock();
+	private final LinkedHashMap<K, Boolean> window = new LinkedHashMap<>(16, 0.75f, true);
+	private final LinkedHashMap<K, Boolean> probation = new LinkedHashMap<>(16, 0.75f, true);
+	private final LinkedHashMap<K, Boolean> protect = new LinkedHashMap<>(16, 0.75f, true);
+
+	private final int capacity;
+	private final int windowCapacity;
+	private final int mainCapacity;
+	private final int protectedCapacity;
+
+	private final int[] sketch;
+	private final int sketchMask;
+	private final int sampleSize;
+	private int samples;
+
+	private final LongAdder hits = new LongAdder();
+	private final LongAdder misses = new LongAdder();
+	private final LongAdder evictions = new LongAdder();
+	private final LongAdder failures = new LongAdder();
+
+	/**
+	 * @param capacity max number of entries in the cache
+	 */
+	public MemoizingCache(int capacity) {
+		if (capacity <= 0)
+			throw new IllegalArgumentException("Capacity must be positive: " + capacity);
+
+		this.capacity = capacity;
+		this.windowCapacity = Math.max(1, capacity / 100);
+		this.mainCapacity = Math.max(0, capacity - windowCapacity);
+		this.protectedCapacity = mainCapacity * 4 / 5;
+
+		final int width = Math.max(16, Integer.highestOneBit(Math.max(1, capacity - 1)) << 1);
+		this.sketch = new int[SKETCH_DEPTH * width];
+		this.sketchMask = width - 1;
+		this.sampleSize = 10 * width;
+	}
+
+	/**
+	 * Returns the value of the key: from the cache, from a computation in progress in another thread, or computed now
+	 * by the current thread with the loader.
+	 *
+	 * @param key    key of the value
+	 * @param loader computes the value if missing
+	 * @return the value of the key
+	 * @throws CompletionException if the loader throws an exception, with that exception as the cause
+	 * @throws Error               if the loader throws an error, in the thread that called the loader
+	 */
+	public V get(K key, Callable<? extends V> loader) {
+		CompletableFuture<V> future = map.get(key);
+
+		if (future != null) {
+			hits.increment();
+			if (lock.tryLock()) {
+				try {
+					increment(key);
+					onHit(key);
+				} finally {
+					lock.unlock();
+				}
+			}
+			return join(future);
+		}
+
+		final CompletableFuture<V> created = new CompletableFuture<>();
+		future = map.putIfAbsent(key, created);
+		if (future != null) {
+			// Another thread is computing the same value
+			hits.increment();
+			return join(future);
+		}
+
+		misses.increment();
+		try {
+			created.complete(loader.call());
+		} catch (Throwable t) {
+			// Also the errors: the threads waiting for this future must not wait forever
+			failures.increment();
+			map.remove(key, created);
+			created.completeExceptionally(t);
+			if (t instanceof Error)
+				throw (Error) t;
+			throw new CompletionException(t);
+		}
+
+		lock.lock();
+		try {
+			increment(key);
+			onInsert(key);
+		} finally {
+			lock.unlock();
+		}
+
+		return join(created);
+	}
+
+	/**
+	 * @param key key of the value
+	 * @param job computes the value if missing
+	 * @return a {@link Callable} that returns the value of the key through the cache
+	 */
+	public Callable<V> memoize(K key, Callable<? extends V> job) {
+		return () -> get(key, job);
+	}
+
+	private static <V> V join(CompletableFuture<V> future) {
+		try {
+			return future.get();
+		} catch (ExecutionException e) {
+			throw new CompletionException(e.getCause());
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new CompletionException(e);
+		}
+	}
+
+	/*
+	 * Policy: all the methods below are called with the lock held.
+	 */
+
+	private void onHit(K key) {
+		if (window.get(key) != null || protect.get(key) != null)
+			// The access order of the LinkedHashMap moved the key to the most recent position
+			return;
+
+		if (probation.remove(key) != null) {
+			// Requested again: promote to the protected segment, and demote its oldest entry if it is full
+			protect.put(key, Boolean.TRUE);
+			if (protect.size() > protectedCapacity) {
+				final K demoted = eldest(protect);
+				protect.remove(demoted);
+				probation.put(demoted, Boolean.TRUE);
+			}
+		}
+		// Otherwise the key is still being inserted by another thread
+	}
+
+	private void onInsert(K key) {
+		window.put(key, Boolean.TRUE);
+		if (window.size() <= windowCapacity)
+			return;
+
+		final K candidate = eldest(window);
+		window.remove(candidate);
+
+		if (probation.size() + protect.size() < mainCapacity) {
+			probation.put(candidate, Boolean.TRUE);
+			return;
+		}
+
+		// The main area is full: the candidate and the oldest entry in probation compete for the place
+		final K victim = probation.isEmpty() ? eldest(protect) : eldest(probation);
+		if (victim != null && frequency(candidate) > frequency(victim)) {
+			probation.remove(victim);
+			protect.remove(victim);
+			probation.put(candidate, Boolean.TRUE);
+			evict(victim);
+		} else {
+			evict(candidate);
+		}
+	}
+
+	private void evict(K key) {
+		map.remove(key);
+		evictions.increment();
+	}
+
+	private static <K> K eldest(LinkedHashMap<K, Boolean> segment) {
+		final Iterator<K> iterator = segment.keySet().iterator();
+		return iterator.hasNext() ? iterator.next() : null;
+	}
+
+	private void increment(K key) {
+		final int hash = spread(key.hashCode());
+		for (int row = 0; row < SKETCH_DEPTH; row++) {
+			final int index = row * (sketchMask + 1) + (rehash(hash, row) & sketchMask);
+			if (sketch[index] < MAX_FREQUENCY)
+				sketch[index]++;
+		}
+
+		if (++samples >= sampleSize) {
+			// Aging: halve all the counters, so that the frequencies follow the recent accesses
+			for (int i = 0; i < sketch.length; i++)
+				sketch[i] >>>= 1;
+			samples /= 2;
+		}
+	}
+
+	private int frequency(K key) {
+		final int hash = spread(key.hashCode());
+		int frequency = MAX_FREQUENCY;
+		for (int row = 0; row < SKETCH_DEPTH; row++)
+			frequency = Math.min(frequency, sketch[row * (sketchMask + 1) + (rehash(hash, row) & sketchMask)]);
+		return frequency;
+	}
+
+	private static int spread(int h) {
+		h ^= h >>> 16;
+		h *= 0x85EBCA6B;
+		h ^= h >>> 13;
+		return h;
+	}
+
+	private static int rehash(int hash, int row) {
+		final int h = (hash + row) * 0x9E3779B9;
+		return h ^ (h >>> 16);
+	}
+
+	/*
+	 * Statistics
+	 */
+
+	/**
+	 * @return the number of entries in the cache, including the ones being computed
+	 */
+	public int size() {
+		return map.size();
+	}
+
+	public int capacity() {
+		return capacity;
+	}
+
+	/**
+	 * @return a copy of the current statistics
+	 */
+	public Stats stats() {
+		return new Stats(hits.sum(), misses.sum(), evictions.sum(), failures.sum());
+	}
+
+	/**
+	 * Immutable statistics of a cache.
+	 */
+	public static final class Stats {
+
+		private final long hits;
+		private final long misses;
+		private final long evictions;
+		private final long failures;
+
+		Stats(long hits, long misses, long evictions, long failures) {
+			this.hits = hits;
+			this.misses = misses;
+			this.evictions = evictions;
+			this.failures = failures;
+		}
+
+		/**
+		 * @return the number of requests answered by the cache, or by a computation already in progress
+		 */
+		public long hits() {
+			return hits;
+		}
+
+		/**
+		 * @return the number of computations
+		 */
+		public long misses() {
+			return misses;
+		}
+
+		public long evictions() {
+			return evictions;
+		}
+
+		/**
+		 * @return the number of computations that failed
+		 */
+		public long failures() {
+			return failures;
+		}
+
+		public double hitRate() {
+			final long requests = hits + misses;
+			return requests == 0 ? 0.0 : (double) hits / requests;
+		}
+
+		@Override
+		public String toString() {
+			return String.format("Stats{hits=%d, misses=%d, hitRate=%.2f%%, evictions=%d, failures=%d}",
+					hits, misses, 100 * hitRate(), evictions, failures);
+		}
+	}
+
+	@Override
+	public String toString() {
+		return "MemoizingCache{size=" + size() + ", capacity=" + capacity + ", " + stats() + "}";
+	}
+}
@@ -0,0 +1,73 @@
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.stream.IntStream;
+
+/**
+ * Project: lambda-tricks
+ * <p>
+ * Generator of random arguments for the jobs, that works in parallel and is reproducible. A shared
+ * {@link java.util.Random} captured by many lambdas is updated by all the threads with a CAS on the same seed, and the
+ * arguments that each job receives depend on the order of the threads.
+ * <p>
+ * Here the arguments are divided in fixed chunks, and each chunk has its own {@link SplittableRandom} with a seed
+ * derived from the seed of the generator, the number of the batch, and the number of the chunk. The chunks are filled
+ * in parallel without sharing anything, and the output is always the same for the same seed, no matter how many
+ * threads are used.
+ * <p>
+ * Each call generates a new batch of arguments, different from the previous ones: the sequence of the batches
+ * generated by an instance depends only on the seed. This class is not thread-safe.
+ */
+public class RandomArguments {
+
+	static final int CHUNK_SIZE = 1 << 14;
+
+	private final long seed;
+	private long batches;
+
+	/**
+	 * @param seed the seed of the generator
+	 */
+	public RandomArguments(long seed) {
+		this.seed = seed;
+	}
+
+	/**
+	 * @param n number of arguments
+	 * @return two columns of <code>n</code> uniform random doubles in <code>[0, 1)</code>: the first arguments
+	 * <code>a</code> in <code>columns[0]</code> and the second arguments <code>b</code> in <code>columns[1]</code>
+	 */
+	public double[][] columns(int n) {
+		final double[] a = new double[n];
+		final double[] b = new double[n];
+		final long batch = batches++;
+		final int chunks = (int) (((long) n + CHUNK_SIZE - 1) / CHUNK_SIZE);
+
+		IntStream.range(0, chunks)
+				.parallel()
+				.forEach(c -> {
+					final SplittableRandom r = new SplittableRandom(
+							Hashing.mix(seed + Hashing.GOLDEN * Hashing.mix(batch + Hashing.GOLDEN * c))
+					);
+					for (int i = c * CHUNK_SIZE, to = (int) Math.min(n, (c + 1L) * CHUNK_SIZE); i < to; i++) {
+						a[i] = r.nextDouble();
+						b[i] = r.nextDouble();
+					}
+				});
+
+		return new double[][]{a, b};
+	}
+
+	/**
+	 * @param n number of arguments
+	 * @return a list of <code>n</code> pairs of uniform random doubles in <code>[0, 1)</code>, the same values of
+	 * {@link #columns(int)}
+	 */
+	public List<double[]> pairs(int n) {
+		final double[][] columns = columns(n);
+		final List<double[]> pairs = new ArrayList<>(n);
+		for (int i = 0; i < n; i++)
+			pairs.add(new double[]{columns[0][i], columns[1][i]});
+		return pairs;
+	}
+}
@@ -0,0 +1,146 @@
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Project: lambda-tricks
+ * <p>
+ * Bounded lock-free queue for many producers and many consumers, based on the array of Dmitry Vyukov.
+ * <p>
+ * All the slots are allocated at the beginning, and each slot has a sequence number that says if the slot is ready to
+ * be written or read in the current lap of the ring. A producer claims a slot with a CAS on the enqueue counter, writes
+ * the element, then publishes it by advancing the sequence of the slot; a consumer does the same with the dequeue
+ * counter. There are no locks and no allocations: a full or empty queue is reported to the caller, that decides how
+ * to wait.
+ * <p>
+ * The two counters and the slots are padded on different cache lines, so the producers, the consumers, and the
+ * threads that work on neighbour slots do not invalidate each other's cache lines.
+ *
+ * @param <E> type of the elements
+ */
+public class RingBuffer<E> {
+
+	/**
+	 * Longs in a cache line of 64 bytes.
+	 */
+	static final int SLOT_STRIDE = 8;
+
+	/**
+	 * References in a cache line, with compressed references of 4 bytes.
+	 */
+	static final int ELEMENT_STRIDE = 16;
+
+	/**
+	 * Distance between the two counters, 128 bytes to avoid the prefetch of the adjacent line.
+	 */
+	private static final int COUNTER_PAD = 16;
+	private static final int ENQUEUE = COUNTER_PAD;
+	private static final int DEQUEUE = 2 * COUNTER_PAD;
+
+	private final int mask;
+	private final AtomicLongArray sequences;
+	private final Object[] elements;
+	private final AtomicLongArray counters = new AtomicLongArray(3 * COUNTER_PAD);
+
+	/**
+	 * @param capacity max number of elements, rounded up to a power of two
+	 */
+	public RingBuffer(int capacity) {
+		if (capacity < 2 || capacity > 1 << 24)
+			throw new IllegalArgumentException("Capacity out of [2, 2^24]: " + capacity);
+
+		final int size = Integer.highestOneBit(capacity - 1) << 1;
+		this.mask = size - 1;
+		this.sequences = new AtomicLongArray(size * SLOT_STRIDE);
+		this.elements = new Object[size * ELEMENT_STRIDE];
+
+		for (int i = 0; i < size; i++)
+			sequences.set(i * SLOT_STRIDE, i);
+	}
+
+	/**
+	 * @param element element to add, not null
+	 * @return true if the element was added, false if the queue is full
+	 */
+	public boolean offer(E element) {
+		if (element == null)
+			throw new NullPointerException();
+
+		long position = counters.get(ENQUEUE);
+		while (true) {
+			final int slot = (int) position & mask;
+			final long sequence = sequences.get(slot * SLOT_STRIDE);
+			final long difference = sequence - position;
+
+			if (difference == 0) {
+				// The slot is free in this lap: try to claim it
+				if (counters.compareAndSet(ENQUEUE, position, position + 1)) {
+					elements[slot * ELEMENT_STRIDE] = element;
+					// Publish the element to the consumers
+					sequences.set(slot * SLOT_STRIDE, position + 1);
+					return true;
+				}
+				position = counters.get(ENQUEUE);
+
+			} else if (difference < 0) {
+				// The slot still contains the element of the previous lap: the queue is full
+				return false;
+
+			} else {
+				// Another producer claimed this position
+				position = counters.get(ENQUEUE);
+			}
+		}
+	}
+
+	/**
+	 * @return the oldest element, or null if the queue is empty
+	 */
+	public E poll() {
+		long position = counters.get(DEQUEUE);
+		while (true) {
+			final int slot = (int) position & mask;
+			final long sequence = sequences.get(slot * SLOT_STRIDE);
+			final long difference = sequence - (position + 1);
+
+			if (difference == 0) {
+				// The slot contains an element of this lap: try to claim it
+				if (counters.compareAndSet(DEQUEUE, position, position + 1)) {
+					@SuppressWarnings("unchecked") final E element = (E) elements[slot * ELEMENT_STRIDE];
+					elements[slot * ELEMENT_STRIDE] = null;
+					// Give the slot back to the producers for the next lap
+					sequences.set(slot * SLOT_STRIDE, position + mask + 1);
+					return element;
+				}
+				position = counters.get(DEQUEUE);
+
+			} else if (difference < 0) {
+				// The slot is not yet published: the queue is empty
+				return null;
+
+			} else {
+				// Another consumer claimed this position
+				position = counters.get(DEQUEUE);
+			}
+		}
+	}
+
+	/**
+	 * @return an estimate of the number of elements, exact when there are no concurrent operations
+	 */
+	public int size() {
+		final long size = counters.get(ENQUEUE) - counters.get(DEQUEUE);
+		return (int) Math.max(0, Math.min(size, capacity()));
+	}
+
+	public boolean isEmpty() {
+		return size() == 0;
+	}
+
+	public int capacity() {
+		return mask + 1;
+	}
+
+	@Override
+	public String toString() {
+		return "RingBuffer{size=" + size() + ", capacity=" + capacity() + "}";
+	}
+}
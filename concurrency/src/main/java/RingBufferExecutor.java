@@ -0,0 +1,273 @@
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.AbstractExecutorService;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicIntegerFieldUpdater;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Project: lambda-tricks
+ * <p>
+ * {@link java.util.concurrent.ExecutorService} with a fixed number of workers that take the tasks from a
+ * {@link RingBuffer}. The queue of {@link java.util.concurrent.Executors#newFixedThreadPool(int)} is a
+ * {@link java.util.concurrent.LinkedBlockingQueue}, that allocates a node for each task and takes a lock for each put
+ * and each take. Here the queue is preallocated and lock-free, and what a thread does while there is nothing to do is
+ * chosen with a {@link WaitStrategy}.
+ * <p>
+ * When the ring is full, the thread that submits a task waits, with the same strategy, until there is space: a task
+ * that submits other tasks to the same executor can then wait forever if all the workers do the same.
+ * <p>
+ * The producers announce themselves in a counter before reading the state, and the workers stop after a
+ * {@link #shutdown()} only when the ring is empty and no producer is inside {@link #execute(Runnable)}: a task is
+ * either rejected or executed, it never remains in the ring without workers. A task that enters the ring while
+ * {@link #shutdownNow()} is draining it is taken back by its producer, that receives a
+ * {@link RejectedExecutionException}; if a worker or another thread took it first, the task is accepted.
+ */
+public class RingBufferExecutor extends AbstractExecutorService {
+
+	/**
+	 * What a thread does when the ring is empty (a worker) or full (a producer).
+	 */
+	public enum WaitStrategy {
+		/**
+		 * Spins on the CPU: the lowest latency, but each idle worker uses a full core.
+		 */
+		BUSY_SPIN,
+		/**
+		 * Spins for a while, then gives the core to other threads: low latency, and the idle workers use less CPU.
+		 */
+		YIELD,
+		/**
+		 * Spins, yields, then sleeps until a new task arrives: the highest latency, but the idle workers use no CPU.
+		 */
+		PARK
+	}
+
+	static final int SPINS = 100;
+	static final int YIELDS = 100;
+
+	/**
+	 * Max time of a park: a parked worker is woken up by a new task, the timeout only limits the effect of races.
+	 */
+	static final long MAX_PARK_NANOS = TimeUnit.MILLISECONDS.toNanos(1);
+
+	private static final int RUNNING = 0;
+	private static final int SHUTDOWN = 1;
+	private static final int STOP = 2;
+
+	private final RingBuffer<Runnable> ring;
+	private final WaitStrategy strategy;
+	private final Worker[] workers;
+	private final CountDownLatch terminated;
+	private final AtomicInteger parked = new AtomicInteger();
+	private final AtomicInteger producers = new AtomicInteger();
+
+	private volatile int state = RUNNING;
+
+	private static final AtomicIntegerFieldUpdater<RingBufferExecutor> STATE =
+			AtomicIntegerFieldUpdater.newUpdater(RingBufferExecutor.class, "state");
+
+	/**
+	 * @param threads  number of workers
+	 * @param capacity max number of queued tasks, rounded up to a power of two
+	 * @param strategy what the threads do while waiting
+	 */
+	public RingBufferExecutor(int threads, int capacity, WaitStrategy strategy) {
+		if (threads <= 0)
+			throw new IllegalArgumentException("Threads must be positive: " + threads);
+
+		this.ring = new RingBuffer<>(capacity);
+		this.strategy = strategy;
+		this.workers = new Worker[threads];
+		this.terminated = new CountDownLatch(threads);
+
+		for (int i = 0; i < threads; i++)
+			workers[i] = new Worker("ring-worker-" + i);
+		for (Worker worker : workers)
+			worker.start();
+	}
+
+	private final class Worker extends Thread {
+
+		private volatile boolean sleeping;
+
+		Worker(String name) {
+			super(name);
+		}
+
+		@Override
+		public void run() {
+			try {
+				int idle = 0;
+				while (state != STOP) {
+					final Runnable task = ring.poll();
+					if (task != null) {
+						idle = 0;
+						runTask(task);
+					} else if (state == SHUTDOWN && producers.get() == 0 && ring.isEmpty()) {
+						// A producer that read RUNNING is still counted, or its task is already in the ring
+						return;
+					} else {
+						idle = idle(idle, this);
+					}
+				}
+			} finally {
+				terminated.countDown();
+			}
+		}
+
+		private void runTask(Runnable task) {
+			try {
+				task.run();
+			} catch (Throwable t) {
+				// Like a ThreadPoolExecutor, but the worker survives
+				getUncaughtExceptionHandler().uncaughtException(this, t);
+			}
+		}
+
+		private void park() {
+			sleeping = true;
+			parked.incrementAndGet();
+			try {
+				// Check again after announcing the park: a producer that missed the announcement published its task
+				// before we read the ring here
+				if (ring.isEmpty() && state == RUNNING)
+					LockSupport.parkNanos(RingBufferExecutor.this, MAX_PARK_NANOS);
+			} finally {
+				parked.decrementAndGet();
+				sleeping = false;
+			}
+		}
+	}
+
+	/**
+	 * Waits once with the strategy of the executor.
+	 *
+	 * @param idle   number of consecutive waits
+	 * @param worker the waiting worker, or null for a producer
+	 * @return the new number of consecutive waits
+	 */
+	private int idle(int idle, Worker worker) {
+		switch (strategy) {
+			case BUSY_SPIN:
+				Thread.onSpinWait();
+				return idle;
+
+			case YIELD:
+				if (idle < SPINS)
+					Thread.onSpinWait();
+				else
+					Thread.yield();
+				return Math.min(idle + 1, SPINS);
+
+			default:
+				if (idle < SPINS)
+					Thread.onSpinWait();
+				else if (idle < SPINS + YIELDS)
+					Thread.yield();
+				else if (worker != null)
+					worker.park();
+				else
+					LockSupport.parkNanos(MAX_PARK_NANOS);
+				return Math.min(idle + 1, SPINS + YIELDS);
+		}
+	}
+
+	@Override
+	public void execute(Runnable command) {
+		if (command == null)
+			throw new NullPointerException();
+
+		// Announced before reading the state: a worker does not stop while we are here
+		producers.incrementAndGet();
+		try {
+			int idle = 0;
+			while (true) {
+				if (state != RUNNING)
+					throw new RejectedExecutionException("Executor is shut down");
+				if (ring.offer(command))
+					break;
+				idle = idle(idle, null);
+			}
+		} finally {
+			producers.decrementAndGet();
+		}
+
+		// shutdownNow() could have drained the ring before our task entered it, and the workers are stopping. The task
+		// is rejected only if we take it back: otherwise a worker could have already run it
+		if (state == STOP && cancelPending(command))
+			throw new RejectedExecutionException("Executor is shut down");
+
+		if (parked.get() > 0)
+			wakeUp();
+	}
+
+	/**
+	 * Removes the tasks left in the ring after a {@link #shutdownNow()}, and cancels the ones of other producers.
+	 *
+	 * @return true if the given task was in the ring
+	 */
+	private boolean cancelPending(Runnable command) {
+		boolean found = false;
+		for (Runnable task = ring.poll(); task != null; task = ring.poll()) {
+			if (task == command)
+				found = true;
+			else if (task instanceof Future)
+				((Future<?>) task).cancel(false);
+		}
+		return found;
+	}
+
+	private void wakeUp() {
+		for (Worker worker : workers) {
+			if (worker.sleeping) {
+				LockSupport.unpark(worker);
+				return;
+			}
+		}
+	}
+
+	@Override
+	public void shutdown() {
+		// A CAS: a shutdownNow() at the same time must not be undone
+		STATE.compareAndSet(this, RUNNING, SHUTDOWN);
+		for (Worker worker : workers)
+			LockSupport.unpark(worker);
+	}
+
+	@Override
+	public List<Runnable> shutdownNow() {
+		state = STOP;
+		for (Worker worker : workers)
+			worker.interrupt();
+
+		final List<Runnable> pending = new ArrayList<>();
+		for (Runnable task = ring.poll(); task != null; task = ring.poll())
+			pending.add(task);
+		return pending;
+	}
+
+	@Override
+	public boolean isShutdown() {
+		return state != RUNNING;
+	}
+
+	@Override
+	public boolean isTerminated() {
+		return terminated.getCount() == 0;
+	}
+
+	@Override
+	public boolean awaitTermination(long timeout, TimeUnit unit) throws InterruptedException {
+		return terminated.await(timeout, unit);
+	}
+
+	@Override
+	public String toString() {
+		return "RingBufferExecutor{threads=" + workers.length + ", strategy=" + strategy + ", " + ring + "}";
+	}
+}
@@ -0,0 +1,334 @@
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicIntegerFieldUpdater;
+
+/**
+ * Project: lambda-tricks
+ * <p>
+ * Scheduler for many delayed and periodic tasks, based on a hashed timing wheel. A
+ * {@link java.util.concurrent.ScheduledThreadPoolExecutor} keeps the tasks in a heap guarded by a lock: each schedule
+ * and each cancel costs O(log n) while holding the lock.
+ * <p>
+ * Here the time is divided in ticks, and the wheel is an array of buckets, one for each tick of a round. A task that
+ * expires after <code>t</code> ticks goes in the bucket <code>t % wheelSize</code>, with the number of full rounds it
+ * has to wait. A single thread, the ticker, wakes up at each tick, and looks only at the bucket of that tick: the tasks
+ * with no more rounds are handed to an {@link Executor}, the others wait for the next round.
+ * <p>
+ * Scheduling and cancelling a task are O(1) and lock-free: the new and cancelled tasks are put in two concurrent
+ * queues, and the ticker moves them in and out of the buckets. The price is the precision: a task runs at the first
+ * tick after its deadline, so up to one tick late.
+ * <p>
+ * If the executor throws, as an example because it runs the tasks in the ticker thread, the exception is given to the
+ * {@link Thread.UncaughtExceptionHandler} of the ticker, and the other tasks keep running.
+ */
+public class TimingWheel {
+
+	/**
+	 * Max number of new tasks moved in the wheel at each tick, so that a burst does not delay the tick too much.
+	 */
+	static final int MAX_TRANSFERS_PER_TICK = 100_000;
+
+	private final Executor executor;
+	private final long tickNanos;
+	private final Bucket[] wheel;
+	private final int mask;
+
+	private final Queue<Timeout> pending = new ConcurrentLinkedQueue<>();
+	private final Queue<Timeout> cancelled = new ConcurrentLinkedQueue<>();
+
+	private final Thread ticker;
+	private final long startTime;
+	private long tick;
+
+	private volatile boolean running = true;
+
+	/**
+	 * @param executor  executes the expired tasks
+	 * @param tick      duration of a tick, the precision of the wheel
+	 * @param unit      unit of the tick
+	 * @param wheelSize number of buckets, rounded up to a power of two
+	 */
+	public TimingWheel(Executor executor, long tick, TimeUnit unit, int wheelSize) {
+		if (tick <= 0)
+			throw new IllegalArgumentException("Tick must be positive: " + tick);
+		if (wheelSize <= 0 || wheelSize > 1 << 20)
+			throw new IllegalArgumentException("Wheel size out of [1, 2^20]: " + wheelSize);
+
+		final int size = wheelSize == 1 ? 1 : Integer.highestOneBit(wheelSize - 1) << 1;
+
+		this.executor = executor;
+		this.tickNanos = unit.toNanos(tick);
+		this.wheel = new Bucket[size];
+		this.mask = size - 1;
+
+		for (int i = 0; i < size; i++)
+			wheel[i] = new Bucket();
+
+		this.startTime = System.nanoTime();
+		this.ticker = new Thread(this::run, "timing-wheel");
+		this.ticker.setDaemon(true);
+		this.ticker.start();
+	}
+
+	/**
+	 * A scheduled task, that can be cancelled.
+	 */
+	public final class Timeout {
+
+		private static final int WAITING = 0;
+		private static final int CANCELLED = 1;
+		private static final int EXPIRED = 2;
+
+		private final Runnable task;
+		private final long period;
+
+		private long deadline;
+		private long rounds;
+
+		private Bucket bucket;
+		private Timeout prev;
+		private Timeout next;
+
+		private volatile int state = WAITING;
+
+		Timeout(Runnable task, long deadline, long period) {
+			this.task = task;
+			this.deadline = deadline;
+			this.period = period;
+		}
+
+		/**
+		 * Cancels the task: if it is waiting, it will not run; if it is periodic, it will not run again.
+		 *
+		 * @return true if the task was cancelled by this call
+		 */
+		public boolean cancel() {
+			if (!STATE.compareAndSet(this, WAITING, CANCELLED))
+				return false;
+
+			// The ticker removes the task from its bucket
+			cancelled.add(this);
+			return true;
+		}
+
+		public boolean isCancelled() {
+			return state == CANCELLED;
+		}
+
+		/**
+		 * @return true if a one-shot task was handed to the executor
+		 */
+		public boolean isExpired() {
+			return state == EXPIRED;
+		}
+
+		public Runnable task() {
+			return task;
+		}
+	}
+
+	private static final AtomicIntegerFieldUpdater<Timeout> STATE =
+			AtomicIntegerFieldUpdater.newUpdater(Timeout.class, "state");
+
+	/**
+	 * Doubly linked list of tasks, modified only by the ticker.
+	 */
+	private static final class Bucket {
+
+		private Timeout head;
+		private Timeout tail;
+
+		void add(Timeout timeout) {
+			timeout.bucket = this;
+			timeout.prev = tail;
+			timeout.next = null;
+			if (tail == null)
+				head = timeout;
+			else
+				tail.next = timeout;
+			tail = timeout;
+		}
+
+		void remove(Timeout timeout) {
+			if (timeout.prev == null)
+				head = timeout.next;
+			else
+				timeout.prev.next = timeout.next;
+
+			if (timeout.next == null)
+				tail = timeout.prev;
+			else
+				timeout.next.prev = timeout.prev;
+
+			timeout.bucket = null;
+			timeout.prev = null;
+			timeout.next = null;
+		}
+	}
+
+	/**
+	 * Schedules a task that runs once.
+	 *
+	 * @param task  task to run
+	 * @param delay time before the execution
+	 * @param unit  unit of the delay
+	 * @return the scheduled task
+	 */
+	public Timeout schedule(Runnable task, long delay, TimeUnit unit) {
+		return add(task, delay, 0, unit);
+	}
+
+	/**
+	 * Schedules a task that runs periodically, until it is cancelled. The runs are handed to the executor at a fixed
+	 * rate: if a run takes more than the period, the next one can run at the same time in another thread.
+	 *
+	 * @param task         task to run
+	 * @param initialDelay time before the first execution
+	 * @param period       time between two executions
+	 * @param unit         unit of the delay and of the period
+	 * @return the scheduled task
+	 */
+	public Timeout scheduleAtFixedRate(Runnable task, long initialDelay, long period, TimeUnit unit) {
+		if (period <= 0)
+			throw new IllegalArgumentException("Period must be positive: " + period);
+		return add(task, initialDelay, period, unit);
+	}
+
+	private Timeout add(Runnable task, long delay, long period, TimeUnit unit) {
+		if (task == null)
+			throw new NullPointerException();
+		if (!running)
+			throw new RejectedExecutionException("Timing wheel is stopped");
+
+		final long deadline = System.nanoTime() - startTime + unit.toNanos(Math.max(0, delay));
+		final Timeout timeout = new Timeout(task, deadline, unit.toNanos(period));
+		pending.add(timeout);
+		return timeout;
+	}
+
+	/**
+	 * Body of the ticker thread.
+	 */
+	private void run() {
+		while (running) {
+			final long deadline = (tick + 1) * tickNanos;
+			final long sleep = deadline - (System.nanoTime() - startTime);
+			if (sleep > 0) {
+				try {
+					TimeUnit.NANOSECONDS.sleep(sleep);
+				} catch (InterruptedException e) {
+					// Interrupted by stop()
+					continue;
+				}
+			}
+
+			removeCancelled();
+			transferPending();
+			expire(wheel[(int) (tick & mask)], deadline);
+			tick++;
+		}
+	}
+
+	private void removeCancelled() {
+		for (Timeout timeout = cancelled.poll(); timeout != null; timeout = cancelled.poll())
+			if (timeout.bucket != null)
+				timeout.bucket.remove(timeout);
+	}
+
+	private void transferPending() {
+		for (int i = 0; i < MAX_TRANSFERS_PER_TICK; i++) {
+			final Timeout timeout = pending.poll();
+			if (timeout == null)
+				return;
+			if (timeout.state == Timeout.WAITING)
+				place(timeout);
+		}
+	}
+
+	/**
+	 * Puts a task in the bucket of its deadline, or in the current bucket if the deadline already passed.
+	 */
+	private void place(Timeout timeout) {
+		final long expiry = Math.max(tick, (timeout.deadline + tickNanos - 1) / tickNanos - 1);
+		timeout.rounds = (expiry - tick) / wheel.length;
+		wheel[(int) (expiry & mask)].add(timeout);
+	}
+
+	private void expire(Bucket bucket, long deadline) {
+		Timeout timeout = bucket.head;
+		while (timeout != null) {
+			final Timeout next = timeout.next;
+
+			if (timeout.rounds > 0) {
+				timeout.rounds--;
+			} else if (timeout.deadline <= deadline) {
+				bucket.remove(timeout);
+				fire(timeout);
+			}
+
+			timeout = next;
+		}
+	}
+
+	private void fire(Timeout timeout) {
+		if (timeout.period == 0) {
+			if (!STATE.compareAndSet(timeout, Timeout.WAITING, Timeout.EXPIRED))
+				return;
+		} else if (timeout.state != Timeout.WAITING) {
+			return;
+		}
+
+		try {
+			executor.execute(timeout.task);
+		} catch (RejectedExecutionException e) {
+			// The executor is shut down: a periodic task stops here
+			return;
+		} catch (Throwable t) {
+			// With an executor that runs the task in the caller, the exception of the task arrives here: the ticker
+			// reports it and goes on, and, like in a ScheduledExecutorService, a periodic task stops here
+			ticker.getUncaughtExceptionHandler().uncaughtException(ticker, t);
+			return;
+		}
+
+		if (timeout.period > 0) {
+			// Through the queue of the new tasks: placed now, it could end in the bucket that is being expired
+			timeout.deadline += timeout.period;
+			pending.add(timeout);
+		}
+	}
+
+	/**
+	 * Stops the ticker. The waiting tasks are not executed.
+	 *
+	 * @return the tasks that were waiting
+	 */
+	public List<Timeout> stop() {
+		running = false;
+		ticker.interrupt();
+		try {
+			ticker.join();
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
+
+		final List<Timeout> waiting = new ArrayList<>();
+		for (Bucket bucket : wheel)
+			for (Timeout timeout = bucket.head; timeout != null; timeout = timeout.next)
+				if (timeout.state == Timeout.WAITING)
+					waiting.add(timeout);
+		for (Timeout timeout : pending)
+			if (timeout.state == Timeout.WAITING)
+				waiting.add(timeout);
+		return waiting;
+	}
+
+	@Override
+	public String toString() {
+		return "TimingWheel{tick=" + tickNanos + "ns, wheelSize=" + wheel.length + ", running=" + running + "}";
+	}
+}
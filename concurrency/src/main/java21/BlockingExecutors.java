@@ -0,0 +1,43 @@
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Project: lambda-tricks
+ * <p>
+ * Factory of executors for jobs that spend most of their time blocked, waiting for I/O, a sleep, or a lock.
+ * <p>
+ * This is the Java 21 version: each task runs in a new virtual thread. A blocked virtual thread is unmounted from its
+ * carrier thread, so thousands of blocked jobs need only a few platform threads, and there is no pool to size.
+ */
+public class BlockingExecutors {
+
+	/**
+	 * Threads of the fallback pool, unused with virtual threads.
+	 */
+	public static final int DEFAULT_POOL_SIZE = 256;
+
+	private BlockingExecutors() {
+	}
+
+	/**
+	 * @return an executor that starts a new virtual thread for each task
+	 */
+	public static ExecutorService newBlockingExecutor() {
+		return Executors.newVirtualThreadPerTaskExecutor();
+	}
+
+	/**
+	 * @param poolSize ignored, there is no pool of threads
+	 * @return an executor that starts a new virtual thread for each task
+	 */
+	public static ExecutorService newBlockingExecutor(int poolSize) {
+		return Executors.newVirtualThreadPerTaskExecutor();
+	}
+
+	/**
+	 * @return true if the executors of this class use virtual threads
+	 */
+	public static boolean virtualThreads() {
+		return true;
+	}
+}
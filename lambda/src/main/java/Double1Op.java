@@ -0,0 +1,62 @@
+import java.util.function.DoubleUnaryOperator;
+
+/**
+ * Project: lambda
+ * <p>
+ * Function with one <code>double</code> argument and a <code>double</code> result. Unlike the interfaces of
+ * {@link java.util.function}, all the arguments and results stay primitive, also when the functions are composed
+ * or partially applied: no value is ever boxed.
+ */
+@FunctionalInterface
+public interface Double1Op {
+
+	double apply(double x);
+
+	/**
+	 * @param after function applied to the result of this function
+	 * @return a function that applies this function and then <code>after</code>
+	 */
+	default Double1Op andThen(Double1Op after) {
+		return x -> after.apply(apply(x));
+	}
+
+	/**
+	 * @param after function applied to the result of this function
+	 * @param <R>   type of the result of <code>after</code>
+	 * @return a function that applies this function and then <code>after</code>, with an object result, like
+	 * {@link java.util.stream.DoubleStream#mapToObj}
+	 */
+	default <R> Double1Fn<R> andThenToObj(Double1Fn<? extends R> after) {
+		return x -> after.apply(apply(x));
+	}
+
+	/**
+	 * @param before function applied to the argument before this function
+	 * @return a function that applies <code>before</code> and then this function
+	 */
+	default Double1Op compose(Double1Op before) {
+		return x -> apply(before.apply(x));
+	}
+
+	/**
+	 * @return this function as a {@link DoubleUnaryOperator}
+	 */
+	default DoubleUnaryOperator toDoubleUnaryOperator() {
+		return this::apply;
+	}
+
+	/**
+	 * @param f a function of {@link java.util.function}
+	 * @return the same function as a {@link Double1Op}
+	 */
+	static Double1Op from(DoubleUnaryOperator f) {
+		return f::applyAsDouble;
+	}
+
+	/**
+	 * @return the function that returns its argument
+	 */
+	static Double1Op identity() {
+		return x -> x;
+	}
+}
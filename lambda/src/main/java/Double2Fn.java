@@ -0,0 +1,58 @@
+import java.util.function.BiFunction;
+import java.util.function.Function;
+
+/**
+ * Project: lambda
+ * <p>
+ * Function with two <code>double</code> arguments and a result of type <code>R</code>. The arguments stay
+ * primitive, also when the function is composed or partially applied.
+ *
+ * @param <R> type of the result
+ */
+@FunctionalInterface
+public interface Double2Fn<R> {
+
+	R apply(double x, double y);
+
+	/**
+	 * @param after function applied to the result of this function
+	 * @param <V>   type of the result of <code>after</code>
+	 * @return a function that applies this function and then <code>after</code>
+	 */
+	default <V> Double2Fn<V> andThen(Function<? super R, ? extends V> after) {
+		return (x, y) -> after.apply(apply(x, y));
+	}
+
+	/**
+	 * @param first  function applied to the first argument
+	 * @param second function applied to the second argument
+	 * @return a function that applies the given functions to the arguments and then this function
+	 */
+	default Double2Fn<R> compose(Double1Op first, Double1Op second) {
+		return (x, y) -> apply(first.apply(x), second.apply(y));
+	}
+
+	/**
+	 * @param x value of the first argument
+	 * @return a function of the remaining argument, with the first argument fixed
+	 */
+	default Double1Fn<R> partial(double x) {
+		return y -> apply(x, y);
+	}
+
+	/**
+	 * @return this function as a {@link BiFunction}: the arguments are boxed at each call
+	 */
+	default BiFunction<Double, Double, R> toBiFunction() {
+		return this::apply;
+	}
+
+	/**
+	 * @param f   a function of {@link java.util.function}: the arguments are boxed at each call
+	 * @param <R> type of the result
+	 * @return the same function as a {@link Double2Fn}
+	 */
+	static <R> Double2Fn<R> from(BiFunction<? super Double, ? super Double, ? extends R> f) {
+		return f::apply;
+	}
+}
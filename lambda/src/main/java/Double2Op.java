@@ -0,0 +1,64 @@
+import java.util.function.DoubleBinaryOperator;
+
+/**
+ * Project: lambda
+ * <p>
+ * Function with two <code>double</code> arguments and a <code>double</code> result. Unlike the interfaces of
+ * {@link java.util.function}, all the arguments and results stay primitive, also when the functions are composed
+ * or partially applied: no value is ever boxed.
+ */
+@FunctionalInterface
+public interface Double2Op {
+
+	double apply(double x, double y);
+
+	/**
+	 * @param after function applied to the result of this function
+	 * @return a function that applies this function and then <code>after</code>
+	 */
+	default Double2Op andThen(Double1Op after) {
+		return (x, y) -> after.apply(apply(x, y));
+	}
+
+	/**
+	 * @param after function applied to the result of this function
+	 * @param <R>   type of the result of <code>after</code>
+	 * @return a function that applies this function and then <code>after</code>, with an object result, like
+	 * {@link java.util.stream.DoubleStream#mapToObj}
+	 */
+	default <R> Double2Fn<R> andThenToObj(Double1Fn<? extends R> after) {
+		return (x, y) -> after.apply(apply(x, y));
+	}
+
+	/**
+	 * @param first  function applied to the first argument
+	 * @param second function applied to the second argument
+	 * @return a function that applies the given functions to the arguments and then this function
+	 */
+	default Double2Op compose(Double1Op first, Double1Op second) {
+		return (x, y) -> apply(first.apply(x), second.apply(y));
+	}
+
+	/**
+	 * @param x value of the first argument
+	 * @return a function of the remaining argument, with the first argument fixed
+	 */
+	default Double1Op partial(double x) {
+		return y -> apply(x, y);
+	}
+
+	/**
+	 * @return this function as a {@link DoubleBinaryOperator}
+	 */
+	default DoubleBinaryOperator toDoubleBinaryOperator() {
+		return this::apply;
+	}
+
+	/**
+	 * @param f a function of {@link java.util.function}
+	 * @return the same function as a {@link Double2Op}
+	 */
+	static Double2Op from(DoubleBinaryOperator f) {
+		return f::applyAsDouble;
+	}
+}
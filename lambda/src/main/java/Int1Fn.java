@@ -0,0 +1,49 @@
+import java.util.function.Function;
+import java.util.function.IntFunction;
+
+/**
+ * Project: lambda
+ * <p>
+ * Function with one <code>int</code> argument and a result of type <code>R</code>. The arguments stay
+ * primitive, also when the function is composed or partially applied.
+ *
+ * @param <R> type of the result
+ */
+@FunctionalInterface
+public interface Int1Fn<R> {
+
+	R apply(int x);
+
+	/**
+	 * @param after function applied to the result of this function
+	 * @param <V>   type of the result of <code>after</code>
+	 * @return a function that applies this function and then <code>after</code>
+	 */
+	default <V> Int1Fn<V> andThen(Function<? super R, ? extends V> after) {
+		return x -> after.apply(apply(x));
+	}
+
+	/**
+	 * @param before function applied to the argument before this function
+	 * @return a function that applies <code>before</code> and then this function
+	 */
+	default Int1Fn<R> compose(Int1Op before) {
+		return x -> apply(before.apply(x));
+	}
+
+	/**
+	 * @return this function as a {@link IntFunction}
+	 */
+	default IntFunction<R> toIntFunction() {
+		return this::apply;
+	}
+
+	/**
+	 * @param f   a function of {@link java.util.function}
+	 * @param <R> type of the result
+	 * @return the same function as a {@link Int1Fn}
+	 */
+	static <R> Int1Fn<R> from(IntFunction<? extends R> f) {
+		return f::apply;
+	}
+}
@@ -0,0 +1,62 @@
+import java.util.function.IntUnaryOperator;
+
+/**
+ * Project: lambda
+ * <p>
+ * Function with one <code>int</code> argument and an <code>int</code> result. Unlike the interfaces of
+ * {@link java.util.function}, all the arguments and results stay primitive, also when the functions are composed
+ * or partially applied: no value is ever boxed.
+ */
+@FunctionalInterface
+public interface Int1Op {
+
+	int apply(int x);
+
+	/**
+	 * @param after function applied to the result of this function
+	 * @return a function that applies this function and then <code>after</code>
+	 */
+	default Int1Op andThen(Int1Op after) {
+		return x -> after.apply(apply(x));
+	}
+
+	/**
+	 * @param after function applied to the result of this function
+	 * @param <R>   type of the result of <code>after</code>
+	 * @return a function that applies this function and then <code>after</code>, with an object result, like
+	 * {@link java.util.stream.IntStream#mapToObj}
+	 */
+	default <R> Int1Fn<R> andThenToObj(Int1Fn<? extends R> after) {
+		return x -> after.apply(apply(x));
+	}
+
+	/**
+	 * @param before function applied to the argument before this function
+	 * @return a function that applies <code>before</code> and then this function
+	 */
+	default Int1Op compose(Int1Op before) {
+		return x -> apply(before.apply(x));
+	}
+
+	/**
+	 * @return this function as a {@link IntUnaryOperator}
+	 */
+	default IntUnaryOperator toIntUnaryOperator() {
+		return this::apply;
+	}
+
+	/**
+	 * @param f a function of {@link java.util.function}
+	 * @return the same function as a {@link Int1Op}
+	 */
+	static Int1Op from(IntUnaryOperator f) {
+		return f::applyAsInt;
+	}
+
+	/**
+	 * @return the function that returns its argument
+	 */
+	static Int1Op identity() {
+		return x -> x;
+	}
+}
@@ -0,0 +1,64 @@
+import java.util.function.IntBinaryOperator;
+
+/**
+ * Project: lambda
+ * <p>
+ * Function with two <code>int</code> arguments and an <code>int</code> result. Unlike the interfaces of
+ * {@link java.util.function}, all the arguments and results stay primitive, also when the functions are composed
+ * or partially applied: no value is ever boxed.
+ */
+@FunctionalInterface
+public interface Int2Op {
+
+	int apply(int x, int y);
+
+	/**
+	 * @param after function applied to the result of this function
+	 * @return a function that applies this function and then <code>after</code>
+	 */
+	default Int2Op andThen(Int1Op after) {
+		return (x, y) -> after.apply(apply(x, y));
+	}
+
+	/**
+	 * @param after function applied to the result of this function
+	 * @param <R>   type of the result of <code>after</code>
+	 * @return a function that applies this function and then <code>after</code>, with an object result, like
+	 * {@link java.util.stream.IntStream#mapToObj}
+	 */
+	default <R> Int2Fn<R> andThenToObj(Int1Fn<? extends R> after) {
+		return (x, y) -> after.apply(apply(x, y));
+	}
+
+	/**
+	 * @param first  function applied to the first argument
+	 * @param second function applied to the second argument
+	 * @return a function that applies the given functions to the arguments and then this function
+	 */
+	default Int2Op compose(Int1Op first, Int1Op second) {
+		return (x, y) -> apply(first.apply(x), second.apply(y));
+	}
+
+	/**
+	 * @param x value of the first argument
+	 * @return a function of the remaining argument, with the first argument fixed
+	 */
+	default Int1Op partial(int x) {
+		return y -> apply(x, y);
+	}
+
+	/**
+	 * @return this function as a {@link IntBinaryOperator}
+	 */
+	default IntBinaryOperator toIntBinaryOperator() {
+		return this::apply;
+	}
+
+	/**
+	 * @param f a function of {@link java.util.function}
+	 * @return the same function as a {@link Int2Op}
+	 */
+	static Int2Op from(IntBinaryOperator f) {
+		return f::applyAsInt;
+	}
+}
@@ -0,0 +1,53 @@
+import java.util.function.Function;
+
+/**
+ * Project: lambda
+ * <p>
+ * Function with three <code>int</code> arguments and a result of type <code>R</code>. The arguments stay
+ * primitive, also when the function is composed or partially applied.
+ * <p>
+ * There is no function with three arguments in {@link java.util.function}, so there are no adapters.
+ *
+ * @param <R> type of the result
+ */
+@FunctionalInterface
+public interface Int3Fn<R> {
+
+	R apply(int x, int y, int z);
+
+	/**
+	 * @param after function applied to the result of this function
+	 * @param <V>   type of the result of <code>after</code>
+	 * @return a function that applies this function and then <code>after</code>
+	 */
+	default <V> Int3Fn<V> andThen(Function<? super R, ? extends V> after) {
+		return (x, y, z) -> after.apply(apply(x, y, z));
+	}
+
+	/**
+	 * @param first  function applied to the first argument
+	 * @param second function applied to the second argument
+	 * @param third  function applied to the third argument
+	 * @return a function that applies the given functions to the arguments and then this function
+	 */
+	default Int3Fn<R> compose(Int1Op first, Int1Op second, Int1Op third) {
+		return (x, y, z) -> apply(first.apply(x), second.apply(y), third.apply(z));
+	}
+
+	/**
+	 * @param x value of the first argument
+	 * @return a function of the remaining arguments, with the first argument fixed
+	 */
+	default Int2Fn<R> partial(int x) {
+		return (y, z) -> apply(x, y, z);
+	}
+
+	/**
+	 * @param x value of the first argument
+	 * @param y value of the second argument
+	 * @return a function of the remaining argument, with the first two arguments fixed
+	 */
+	default Int1Fn<R> partial(int x, int y) {
+		return z -> apply(x, y, z);
+	}
+}
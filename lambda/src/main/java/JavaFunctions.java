@@ -1,5 +1,6 @@
 import java.util.function.BiFunction;
 import java.util.function.DoubleFunction;
+import java.util.function.DoubleUnaryOperator;
 import java.util.function.Function;
 
 /**
@@ -40,6 +41,35 @@ public class JavaFunctions {
 
 		System.out.println("InvertedSQRT(42) = " + invSqrt.apply(42) + "\n");
 
+		// All the functions above box their values: itoa receives an Integer, add receives two Integers and returns a
+		// third one, invSqrt returns a Double. Each call can allocate new objects only to wrap the numbers.
+		// The interfaces Int1Op, Int2Fn, Double1Op, ... work only with primitives, also when they are composed:
+		Int2Op addP = Integer::sum;
+		Int1Fn<String> itoaP = i -> "" + ((char) i);
+
+		// The composition keeps the int values primitive: the only object is the final String
+		final Int2Fn<String> composeP = addP.andThenToObj(itoaP);
+
+		System.out.println("lower(char(65)) = " + composeP.apply(65, 32) + "\n");
+
+		// We can also fix some arguments (partial application), still without boxing
+		final Int1Fn<String> lower = composeP.partial(32);
+
+		System.out.println("lower(char(66)) = " + lower.apply(66) + "\n");
+
+		// And we can convert from and to the interfaces of java.util.function
+		Double1Op invSqrtP = d -> 1. / Math.sqrt(d);
+		final DoubleUnaryOperator half = invSqrtP.andThen(d -> d / 2).toDoubleUnaryOperator();
+
+		System.out.println("InvertedSQRT(42) / 2 = " + half.applyAsDouble(42) + "\n");
+
+		// Our own interface MyFunction can also be composed
+		MyFunction twice = x -> 2 * x;
+		MyFunction plusOne = x -> x + 1;
+
+		System.out.println("2 * 20 + 1 = " + twice.andThen(plusOne).$(20));
+		System.out.println("2 * (20 + 1) = " + twice.compose(plusOne).$(20) + "\n");
+
 		/*
 		Expected output:
 
@@ -51,6 +81,15 @@ public class JavaFunctions {
 
 		InvertedSQRT(42) = 0.1543033499620919
 
+		lower(char(65)) = a
+
+		lower(char(66)) = b
+
+		InvertedSQRT(42) / 2 = 0.07715167498104596
+
+		2 * 20 + 1 = 41
+		2 * (20 + 1) = 42
+
 		 */
 	}
 }
@@ -0,0 +1,49 @@
+import java.util.function.Function;
+import java.util.function.LongFunction;
+
+/**
+ * Project: lambda
+ * <p>
+ * Function with one <code>long</code> argument and a result of type <code>R</code>. The arguments stay
+ * primitive, also when the function is composed or partially applied.
+ *
+ * @param <R> type of the result
+ */
+@FunctionalInterface
+public interface Long1Fn<R> {
+
+	R apply(long x);
+
+	/**
+	 * @param after function applied to the result of this function
+	 * @param <V>   type of the result of <code>after</code>
+	 * @return a function that applies this function and then <code>after</code>
+	 */
+	default <V> Long1Fn<V> andThen(Function<? super R, ? extends V> after) {
+		return x -> after.apply(apply(x));
+	}
+
+	/**
+	 * @param before function applied to the argument before this function
+	 * @return a function that applies <code>before</code> and then this function
+	 */
+	default Long1Fn<R> compose(Long1Op before) {
+		return x -> apply(before.apply(x));
+	}
+
+	/**
+	 * @return this function as a {@link LongFunction}
+	 */
+	default LongFunction<R> toLongFunction() {
+		return this::apply;
+	}
+
+	/**
+	 * @param f   a function of {@link java.util.function}
+	 * @param <R> type of the result
+	 * @return the same function as a {@link Long1Fn}
+	 */
+	static <R> Long1Fn<R> from(LongFunction<? extends R> f) {
+		return f::apply;
+	}
+}
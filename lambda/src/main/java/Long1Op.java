@@ -0,0 +1,62 @@
+import java.util.function.LongUnaryOperator;
+
+/**
+ * Project: lambda
+ * <p>
+ * Function with one <code>long</code> argument and a <code>long</code> result. Unlike the interfaces of
+ * {@link java.util.function}, all the arguments and results stay primitive, also when the functions are composed
+ * or partially applied: no value is ever boxed.
+ */
+@FunctionalInterface
+public interface Long1Op {
+
+	long apply(long x);
+
+	/**
+	 * @param after function applied to the result of this function
+	 * @return a function that applies this function and then <code>after</code>
+	 */
+	default Long1Op andThen(Long1Op after) {
+		return x -> after.apply(apply(x));
+	}
+
+	/**
+	 * @param after function applied to the result of this function
+	 * @param <R>   type of the result of <code>after</code>
+	 * @return a function that applies this function and then <code>after</code>, with an object result, like
+	 * {@link java.util.stream.LongStream#mapToObj}
+	 */
+	default <R> Long1Fn<R> andThenToObj(Long1Fn<? extends R> after) {
+		return x -> after.apply(apply(x));
+	}
+
+	/**
+	 * @param before function applied to the argument before this function
+	 * @return a function that applies <code>before</code> and then this function
+	 */
+	default Long1Op compose(Long1Op before) {
+		return x -> apply(before.apply(x));
+	}
+
+	/**
+	 * @return this function as a {@link LongUnaryOperator}
+	 */
+	default LongUnaryOperator toLongUnaryOperator() {
+		return this::apply;
+	}
+
+	/**
+	 * @param f a function of {@link java.util.function}
+	 * @return the same function as a {@link Long1Op}
+	 */
+	static Long1Op from(LongUnaryOperator f) {
+		return f::applyAsLong;
+	}
+
+	/**
+	 * @return the function that returns its argument
+	 */
+	static Long1Op identity() {
+		return x -> x;
+	}
+}
@@ -0,0 +1,64 @@
+import java.util.function.LongBinaryOperator;
+
+/**
+ * Project: lambda
+ * <p>
+ * Function with two <code>long</code> arguments and a <code>long</code> result. Unlike the interfaces of
+ * {@link java.util.function}, all the arguments and results stay primitive, also when the functions are composed
+ * or partially applied: no value is ever boxed.
+ */
+@FunctionalInterface
+public interface Long2Op {
+
+	long apply(long x, long y);
+
+	/**
+	 * @param after function applied to the result of this function
+	 * @return a function that applies this function and then <code>after</code>
+	 */
+	default Long2Op andThen(Long1Op after) {
+		return (x, y) -> after.apply(apply(x, y));
+	}
+
+	/**
+	 * @param after function applied to the result of this function
+	 * @param <R>   type of the result of <code>after</code>
+	 * @return a function that applies this function and then <code>after</code>, with an object result, like
+	 * {@link java.util.stream.LongStream#mapToObj}
+	 */
+	default <R> Long2Fn<R> andThenToObj(Long1Fn<? extends R> after) {
+		return (x, y) -> after.apply(apply(x, y));
+	}
+
+	/**
+	 * @param first  function applied to the first argument
+	 * @param second function applied to the second argument
+	 * @return a function that applies the given functions to the arguments and then this function
+	 */
+	default Long2Op compose(Long1Op first, Long1Op second) {
+		return (x, y) -> apply(first.apply(x), second.apply(y));
+	}
+
+	/**
+	 * @param x value of the first argument
+	 * @return a function of the remaining argument, with the first argument fixed
+	 */
+	default Long1Op partial(long x) {
+		return y -> apply(x, y);
+	}
+
+	/**
+	 * @return this function as a {@link LongBinaryOperator}
+	 */
+	default LongBinaryOperator toLongBinaryOperator() {
+		return this::apply;
+	}
+
+	/**
+	 * @param f a function of {@link java.util.function}
+	 * @return the same function as a {@link Long2Op}
+	 */
+	static Long2Op from(LongBinaryOperator f) {
+		return f::applyAsLong;
+	}
+}
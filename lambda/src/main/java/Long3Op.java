@@ -0,0 +1,59 @@
+/**
+ * Project: lambda
+ * <p>
+ * Function with three <code>long</code> arguments and a <code>long</code> result. Unlike the interfaces of
+ * {@link java.util.function}, all the arguments and results stay primitive, also when the functions are composed
+ * or partially applied: no value is ever boxed.
+ * <p>
+ * There is no function with three arguments in {@link java.util.function}, so there are no adapters.
+ */
+@FunctionalInterface
+public interface Long3Op {
+
+	long apply(long x, long y, long z);
+
+	/**
+	 * @param after function applied to the result of this function
+	 * @return a function that applies this function and then <code>after</code>
+	 */
+	default Long3Op andThen(Long1Op after) {
+		return (x, y, z) -> after.apply(apply(x, y, z));
+	}
+
+	/**
+	 * @param after function applied to the result of this function
+	 * @param <R>   type of the result of <code>after</code>
+	 * @return a function that applies this function and then <code>after</code>, with an object result, like
+	 * {@link java.util.stream.LongStream#mapToObj}
+	 */
+	default <R> Long3Fn<R> andThenToObj(Long1Fn<? extends R> after) {
+		return (x, y, z) -> after.apply(apply(x, y, z));
+	}
+
+	/**
+	 * @param first  function applied to the first argument
+	 * @param second function applied to the second argument
+	 * @param third  function applied to the third argument
+	 * @return a function that applies the given functions to the arguments and then this function
+	 */
+	default Long3Op compose(Long1Op first, Long1Op second, Long1Op third) {
+		return (x, y, z) -> apply(first.apply(x), second.apply(y), third.apply(z));
+	}
+
+	/**
+	 * @param x value of the first argument
+	 * @return a function of the remaining arguments, with the first argument fixed
+	 */
+	default Long2Op partial(long x) {
+		return (y, z) -> apply(x, y, z);
+	}
+
+	/**
+	 * @param x value of the first argument
+	 * @param y value of the second argument
+	 * @return a function of the remaining argument, with the first two arguments fixed
+	 */
+	default Long1Op partial(long x, long y) {
+		return z -> apply(x, y, z);
+	}
+}
@@ -8,4 +8,20 @@ public interface MyFunction {
 	// yes, $ is still a valid character as a method name! :D
 	int $(int x);
 
+	/**
+	 * @param after function applied to the result of this function
+	 * @return a function that applies this function and then <code>after</code>, without boxing the values
+	 */
+	default MyFunction andThen(MyFunction after) {
+		return x -> after.$($(x));
+	}
+
+	/**
+	 * @param before function applied to the argument before this function
+	 * @return a function that applies <code>before</code> and then this function, without boxing the values
+	 */
+	default MyFunction compose(MyFunction before) {
+		return x -> $(before.$(x));
+	}
+
 }
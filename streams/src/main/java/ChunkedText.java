@@ -0,0 +1,173 @@
+import java.io.IOException;
+import java.io.Writer;
+import java.util.stream.Collector;
+
+/**
+ * Project: lambda-tricks
+ * <p>
+ * A text built by joining many strings, without copying them. A reduction like
+ * <code>.reduce((w1, w2) -> w1 + w2)</code> copies all the characters joined so far at each step, so its cost grows
+ * with the square of the length of the output. Here the strings are just referenced in a linked list of blocks:
+ * <ul>
+ *     <li>appending a string costs O(1);</li>
+ *     <li>joining two texts, as it happens when a parallel stream combines its partial results, links the two lists
+ *     in O(1);</li>
+ *     <li>the characters are copied only once, at the end, by {@link #toString()}, or they are not copied at all by
+ *     {@link #writeTo(Writer)}, that streams them to a {@link Writer}.</li>
+ * </ul>
+ * This class is not thread-safe.
+ */
+public class ChunkedText {
+
+	private static final int BLOCK_SIZE = 256;
+
+	private static final class Block {
+		final String[] chunks = new String[BLOCK_SIZE];
+		int count;
+		Block next;
+	}
+
+	private final String delimiter;
+
+	private Block head;
+	private Block tail;
+	private long length;
+	private boolean hasElements;
+
+	public ChunkedText() {
+		this("");
+	}
+
+	/**
+	 * @param delimiter text to put between two appended elements
+	 */
+	public ChunkedText(CharSequence delimiter) {
+		this.delimiter = delimiter.toString();
+	}
+
+	/**
+	 * @return a collector that joins all the elements of a stream, also in parallel, in a {@link ChunkedText}
+	 */
+	public static Collector<CharSequence, ?, ChunkedText> joining() {
+		return joining("");
+	}
+
+	/**
+	 * @param delimiter text to put between two elements
+	 * @return a collector that joins all the elements of a stream, also in parallel, in a {@link ChunkedText}
+	 */
+	public static Collector<CharSequence, ?, ChunkedText> joining(CharSequence delimiter) {
+		return Collector.of(
+				() -> new ChunkedText(delimiter),
+				ChunkedText::append,
+				ChunkedText::append
+		);
+	}
+
+	/**
+	 * @param text the text to append, if it is not a {@link String} its current content is copied
+	 * @return this text
+	 */
+	public ChunkedText append(CharSequence text) {
+		if (hasElements)
+			add(delimiter);
+		add(text.toString());
+		hasElements = true;
+		return this;
+	}
+
+	/**
+	 * Appends all the content of the other text in constant time. The other text is emptied, since its content is now
+	 * part of this text.
+	 *
+	 * @param other the text to append
+	 * @return this text
+	 */
+	public ChunkedText append(ChunkedText other) {
+		if (other == this)
+			throw new IllegalArgumentException("Cannot append a text to itself");
+
+		if (!other.hasElements)
+			return this;
+
+		if (hasElements)
+			add(delimiter);
+
+		if (head == null) {
+			head = other.head;
+			tail = other.tail;
+		} else if (other.head != null) {
+			tail.next = other.head;
+			tail = other.tail;
+		}
+
+		length += other.length;
+		hasElements = true;
+
+		other.head = null;
+		other.tail = null;
+		other.length = 0;
+		other.hasElements = false;
+
+		return this;
+	}
+
+	/**
+	 * @return the number of characters of the text
+	 */
+	public long length() {
+		return length;
+	}
+
+	public boolean isEmpty() {
+		return length == 0;
+	}
+
+	/**
+	 * Writes all the text, chunk by chunk, without building it in memory.
+	 *
+	 * @param writer where to write the text
+	 * @throws IOException if the writer fails
+	 */
+	public void writeTo(Writer writer) throws IOException {
+		for (Block b = head; b != null; b = b.next)
+			for (int i = 0; i < b.count; i++)
+				writer.write(b.chunks[i]);
+	}
+
+	/**
+	 * Builds the text: all the characters are copied exactly once.
+	 *
+	 * @return the whole text
+	 * @throws OutOfMemoryError if the text is longer than the maximum length of a {@link String}, use
+	 *                          {@link #writeTo(Writer)} instead
+	 */
+	@Override
+	public String toString() {
+		if (length > Integer.MAX_VALUE - 8)
+			throw new OutOfMemoryError("Text too long for a String: " + length + " characters");
+
+		final StringBuilder sb = new StringBuilder((int) length);
+		for (Block b = head; b != null; b = b.next)
+			for (int i = 0; i < b.count; i++)
+				sb.append(b.chunks[i]);
+		return sb.toString();
+	}
+
+	private void add(String chunk) {
+		if (chunk.isEmpty())
+			return;
+
+		if (tail == null || tail.count == BLOCK_SIZE) {
+			final Block block = new Block();
+			if (tail == null)
+				head = block;
+			else
+				tail.next = block;
+			tail = block;
+		}
+
+		tail.chunks[tail.count++] = chunk;
+		length += chunk.length();
+	}
+}
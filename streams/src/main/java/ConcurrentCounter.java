@@ -0,0 +1,94 @@
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.ObjLongConsumer;
+
+/**
+ * Project: lambda-tricks
+ * <p>
+ * A counter that many threads can update at the same time. Each key has its own {@link LongAdder}: once the key is in
+ * the map, an {@link #increment(Object)} is a lock-free read of the {@link ConcurrentHashMap} followed by an update of
+ * one of the cells of the adder. When many threads increment the same key, as it happens with words like "the" or "a",
+ * the adder spreads the updates on different cells instead of having all the threads fight for the same value.
+ *
+ * @param <K> type of the keys
+ */
+public class ConcurrentCounter<K> {
+
+	private final ConcurrentHashMap<K, LongAdder> counts;
+
+	public ConcurrentCounter() {
+		this.counts = new ConcurrentHashMap<>();
+	}
+
+	/**
+	 * @param expectedSize number of distinct keys that can be stored before the first resize
+	 */
+	public ConcurrentCounter(int expectedSize) {
+		this.counts = new ConcurrentHashMap<>(expectedSize);
+	}
+
+	/**
+	 * Adds 1 to the count of the given key.
+	 *
+	 * @param key the key to count
+	 */
+	public void increment(K key) {
+		add(key, 1L);
+	}
+
+	/**
+	 * Adds <code>delta</code> to the count of the given key.
+	 *
+	 * @param key   the key to count
+	 * @param delta the value to add
+	 */
+	public void add(K key, long delta) {
+		Objects.requireNonNull(key, "Key cannot be null");
+
+		// The get() does not lock anything, computeIfAbsent() is needed only the first time we see a key
+		LongAdder adder = counts.get(key);
+		if (adder == null)
+			adder = counts.computeIfAbsent(key, k -> new LongAdder());
+
+		adder.add(delta);
+	}
+
+	/**
+	 * @param key the key to search for
+	 * @return the current count of the key, or 0 if the key is not in the counter
+	 */
+	public long get(Object key) {
+		final LongAdder adder = counts.get(key);
+		return adder == null ? 0L : adder.sum();
+	}
+
+	public int size() {
+		return counts.size();
+	}
+
+	/**
+	 * Performs the given action on each key-count pair. If the counter is still updated, the counts are not a snapshot.
+	 *
+	 * @param action the action to perform
+	 */
+	public void forEach(ObjLongConsumer<? super K> action) {
+		counts.forEach((k, adder) -> action.accept(k, adder.sum()));
+	}
+
+	/**
+	 * @return a new {@link HashMap} with the current counts
+	 */
+	public Map<K, Long> toMap() {
+		final Map<K, Long> map = new HashMap<>(counts.size() * 2);
+		forEach(map::put);
+		return map;
+	}
+
+	@Override
+	public String toString() {
+		return toMap().toString();
+	}
+}
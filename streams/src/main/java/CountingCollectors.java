@@ -0,0 +1,126 @@
+import java.util.function.Function;
+import java.util.stream.Collector;
+
+/**
+ * Project: lambda-tricks
+ * <p>
+ * Factory of {@link Collector}s that count the occurrences of the elements of a {@link java.util.stream.Stream}
+ * using {@link ObjectIntHashMap} and {@link ObjectLongHashMap}. They are a replacement for
+ * <code>Collectors.groupingBy(w -> w, Collectors.counting())</code> and for
+ * <code>Collectors.toMap(w -> w, w -> 1, Integer::sum)</code> that does not box a number for each element.
+ * <p>
+ * All the collectors work also with parallel streams: each thread counts in its own map, then the smaller map is merged
+ * into the bigger one. The only exception is {@link #countingConcurrent()}, where all the threads update the same
+ * {@link ConcurrentCounter}.
+ */
+public class CountingCollectors {
+
+	private CountingCollectors() {
+	}
+
+	/**
+	 * @param <T> type of the elements to count
+	 * @return a collector that counts the occurrences of each element with <code>int</code> counters
+	 */
+	public static <T> Collector<T, ?, ObjectIntHashMap<T>> countingInt() {
+		return countingInt(Function.identity());
+	}
+
+	/**
+	 * @param classifier function that maps an element to the key to count
+	 * @param <T>        type of the elements of the stream
+	 * @param <K>        type of the keys to count
+	 * @return a collector that counts the occurrences of each key with <code>int</code> counters
+	 */
+	public static <T, K> Collector<T, ?, ObjectIntHashMap<K>> countingInt(
+			Function<? super T, ? extends K> classifier
+	) {
+		return Collector.of(
+				ObjectIntHashMap<K>::new,
+				(map, e) -> map.increment(classifier.apply(e)),
+				(a, b) -> a.size() >= b.size() ? a.merge(b) : b.merge(a),
+				Collector.Characteristics.IDENTITY_FINISH,
+				Collector.Characteristics.UNORDERED
+		);
+	}
+
+	/**
+	 * @param <T> type of the elements to count
+	 * @return a collector that counts the occurrences of each element with <code>long</code> counters
+	 */
+	public static <T> Collector<T, ?, ObjectLongHashMap<T>> countingLong() {
+		return countingLong(Function.identity());
+	}
+
+	/**
+	 * @param classifier function that maps an element to the key to count
+	 * @param <T>        type of the elements of the stream
+	 * @param <K>        type of the keys to count
+	 * @return a collector that counts the occurrences of each key with <code>long</code> counters
+	 */
+	public static <T, K> Collector<T, ?, ObjectLongHashMap<K>> countingLong(
+			Function<? super T, ? extends K> classifier
+	) {
+		return Collector.of(
+				ObjectLongHashMap<K>::new,
+				(map, e) -> map.increment(classifier.apply(e)),
+				(a, b) -> a.size() >= b.size() ? a.merge(b) : b.merge(a),
+				Collector.Characteristics.IDENTITY_FINISH,
+				Collector.Characteristics.UNORDERED
+		);
+	}
+
+	/**
+	 * A concurrent collector: in a parallel stream all the threads count in the same {@link ConcurrentCounter}, so
+	 * there are no partial maps to merge at the end.
+	 *
+	 * @param <T> type of the elements to count
+	 * @return a concurrent collector that counts the occurrences of each element
+	 */
+	public static <T> Collector<T, ?, ConcurrentCounter<T>> countingConcurrent() {
+		return countingConcurrent(Function.identity());
+	}
+
+	/**
+	 * @param classifier function that maps an element to the key to count
+	 * @param <T>        type of the elements of the stream
+	 * @param <K>        type of the keys to count
+	 * @return a concurrent collector that counts the occurrences of each key
+	 */
+	public static <T, K> Collector<T, ?, ConcurrentCounter<K>> countingConcurrent(
+			Function<? super T, ? extends K> classifier
+	) {
+		return Collector.of(
+				ConcurrentCounter<K>::new,
+				(counter, e) -> counter.increment(classifier.apply(e)),
+				(a, b) -> {
+					// Called only if the stream does not use the collector concurrently
+					b.forEach(a::add);
+					return a;
+				},
+				Collector.Characteristics.CONCURRENT,
+				Collector.Characteristics.IDENTITY_FINISH,
+				Collector.Characteristics.UNORDERED
+		);
+	}
+
+	/**
+	 * A collector that does not keep a counter for each distinct element, but only the most frequent ones: the memory
+	 * used depends on the parameters and not on the elements of the stream.
+	 *
+	 * @param k       number of elements to keep
+	 * @param epsilon maximum error of the counts, as a fraction of the number of elements
+	 * @param delta   probability that the error is higher than epsilon
+	 * @param <T>     type of the elements to count
+	 * @return a collector that finds the K most frequent elements
+	 */
+	public static <T> Collector<T, ?, HeavyHitters<T>> heavyHitters(int k, double epsilon, double delta) {
+		return Collector.of(
+				() -> new HeavyHitters<T>(k, epsilon, delta),
+				HeavyHitters::add,
+				HeavyHitters::merge,
+				Collector.Characteristics.IDENTITY_FINISH,
+				Collector.Characteristics.UNORDERED
+		);
+	}
+}
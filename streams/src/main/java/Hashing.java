@@ -0,0 +1,28 @@
+/**
+ * Project: lambda-tricks
+ * <p>
+ * Hash functions shared by the classes of this module.
+ */
+final class Hashing {
+
+	/**
+	 * 2<sup>64</sup> divided by the golden ratio: its multiples are spread evenly over all the <code>long</code>s.
+	 */
+	static final long GOLDEN = 0x9E3779B97F4A7C15L;
+
+	private Hashing() {
+	}
+
+	/**
+	 * Final mix of MurmurHash3: every bit of the input affects every bit of the output, so close inputs, like
+	 * consecutive seeds, become very different outputs.
+	 */
+	static long mix(long h) {
+		h ^= h >>> 33;
+		h *= 0xFF51AFD7ED558CCDL;
+		h ^= h >>> 33;
+		h *= 0xC4CEB93FE53B2A63L;
+		h ^= h >>> 33;
+		return h;
+	}
+}
@@ -0,0 +1,213 @@
+import java.util.AbstractMap;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.PriorityQueue;
+import java.util.Set;
+
+/**
+ * Project: lambda-tricks
+ * <p>
+ * Finds the K most frequent elements of a stream in a fixed amount of memory, also when the number of distinct
+ * elements has no limit (user ids, URLs, ...). Instead of a map with an entry for each element, it uses:
+ * <ul>
+ *     <li>a <i>Count-Min Sketch</i>: a table of <code>depth x width</code> counters, where each element increments
+ *     one counter per row. The estimated count of an element is the minimum of its counters: it is never lower than
+ *     the real count, and with probability <code>1 - delta</code> it is at most <code>epsilon * N</code> higher, where
+ *     <code>N</code> is the number of elements seen;</li>
+ *     <li>a min-heap with the current K candidates: a new element replaces the smallest candidate when its estimated
+ *     count is higher.</li>
+ * </ul>
+ * Two instances with the same parameters can be merged, so this class can be used in parallel streams (see
+ * {@link CountingCollectors#heavyHitters(int, double, double)}). This class is not thread-safe.
+ *
+ * @param <T> type of the elements
+ */
+public class HeavyHitters<T> {
+
+	/**
+	 * A candidate in the heap. The count is updated in place, while the priority is the count when the candidate was
+	 * added to the heap: since counts can only grow, the priority is a lower bound of the count.
+	 */
+	private static final class Candidate<T> {
+		final T element;
+		long count;
+		long priority;
+
+		Candidate(T element, long count) {
+			this.element = element;
+			this.count = count;
+			this.priority = count;
+		}
+	}
+
+	private final int k;
+	private final double epsilon;
+	private final double delta;
+
+	private final int width;
+	private final int depth;
+	private final long[] sketch;
+	private long total;
+
+	private final Map<T, Candidate<T>> candidates;
+	private final PriorityQueue<Candidate<T>> heap;
+
+	/**
+	 * @param k       number of elements to keep
+	 * @param epsilon maximum error of the counts, as a fraction of the number of elements seen
+	 * @param delta   probability that the error is higher than epsilon
+	 */
+	public HeavyHitters(int k, double epsilon, double delta) {
+		if (k <= 0)
+			throw new IllegalArgumentException("K must be positive: " + k);
+		if (epsilon <= 0 || epsilon >= 1)
+			throw new IllegalArgumentException("Epsilon must be in (0, 1): " + epsilon);
+		if (delta <= 0 || delta >= 1)
+			throw new IllegalArgumentException("Delta must be in (0, 1): " + delta);
+
+		this.k = k;
+		this.epsilon = epsilon;
+		this.delta = delta;
+
+		this.width = (int) Math.ceil(Math.E / epsilon);
+		this.depth = (int) Math.ceil(Math.log(1 / delta));
+		this.sketch = new long[width * depth];
+
+		this.candidates = new HashMap<>(k * 2);
+		this.heap = new PriorityQueue<>(k, (a, b) -> Long.compare(a.priority, b.priority));
+	}
+
+	/**
+	 * Counts one occurrence of the given element.
+	 *
+	 * @param element the element to count
+	 */
+	public void add(T element) {
+		Objects.requireNonNull(element, "Element cannot be null");
+
+		total++;
+
+		final long h = hash(element);
+		long estimate = Long.MAX_VALUE;
+		for (int row = 0; row < depth; row++) {
+			final int i = index(h, row);
+			estimate = Math.min(estimate, ++sketch[i]);
+		}
+
+		offer(element, estimate);
+	}
+
+	/**
+	 * @param element the element to search for
+	 * @return the estimated count of the element, never lower than the real count
+	 */
+	public long estimate(T element) {
+		final long h = hash(element);
+		long estimate = Long.MAX_VALUE;
+		for (int row = 0; row < depth; row++)
+			estimate = Math.min(estimate, sketch[index(h, row)]);
+		return estimate;
+	}
+
+	/**
+	 * @return the number of elements seen
+	 */
+	public long total() {
+		return total;
+	}
+
+	/**
+	 * @return the K most frequent elements with their estimated counts, from the most frequent
+	 */
+	public List<Map.Entry<T, Long>> topK() {
+		final List<Map.Entry<T, Long>> top = new ArrayList<>(candidates.size());
+		for (Candidate<T> c : candidates.values())
+			top.add(new AbstractMap.SimpleImmutableEntry<>(c.element, c.count));
+
+		top.sort((a, b) -> Long.compare(b.getValue(), a.getValue()));
+		return top;
+	}
+
+	/**
+	 * Adds the counts of the other instance to this one. The other instance is not modified.
+	 *
+	 * @param other an instance built with the same parameters
+	 * @return this instance
+	 */
+	public HeavyHitters<T> merge(HeavyHitters<T> other) {
+		if (other.k != k || other.epsilon != epsilon || other.delta != delta)
+			throw new IllegalArgumentException("Cannot merge instances with different parameters");
+
+		for (int i = 0; i < sketch.length; i++)
+			sketch[i] += other.sketch[i];
+		total += other.total;
+
+		// The candidates of both instances compete again, with the counts of the merged sketch
+		final Set<T> elements = new HashSet<>(candidates.keySet());
+		elements.addAll(other.candidates.keySet());
+
+		candidates.clear();
+		heap.clear();
+
+		for (T element : elements)
+			offer(element, estimate(element));
+
+		return this;
+	}
+
+	@Override
+	public String toString() {
+		return topK().toString();
+	}
+
+	private void offer(T element, long estimate) {
+		final Candidate<T> candidate = candidates.get(element);
+
+		if (candidate != null) {
+			candidate.count = estimate;
+			return;
+		}
+
+		if (candidates.size() < k) {
+			insert(new Candidate<>(element, estimate));
+			return;
+		}
+
+		// Fast rejection: the priority of the head is a lower bound of all the counts in the heap
+		if (estimate <= heap.peek().priority)
+			return;
+
+		// The head can have an old priority: we update it until the head is the real minimum
+		Candidate<T> min = heap.peek();
+		while (min.priority < min.count) {
+			heap.poll();
+			min.priority = min.count;
+			heap.add(min);
+			min = heap.peek();
+		}
+
+		if (estimate > min.count) {
+			heap.poll();
+			candidates.remove(min.element);
+			insert(new Candidate<>(element, estimate));
+		}
+	}
+
+	private void insert(Candidate<T> candidate) {
+		candidates.put(candidate.element, candidate);
+		heap.add(candidate);
+	}
+
+	private int index(long h, int row) {
+		final long x = Hashing.mix(h + (row + 1) * Hashing.GOLDEN);
+		return row * width + (int) ((x >>> 1) % width);
+	}
+
+	private static long hash(Object element) {
+		return Hashing.mix(element.hashCode());
+	}
+}
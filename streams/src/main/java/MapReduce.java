@@ -1,3 +1,6 @@
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
 import java.util.Arrays;
 import java.util.Optional;
 import java.util.Set;
@@ -34,9 +37,13 @@ public class MapReduce {
 		String sentence = "Wholly is a fluffy sheep with a dark nose";
 		Set<Character> vowels = Set.of('A', 'E', 'I', 'O', 'U');
 
+		// Capitalizing a word with substring(0, 1).toUpperCase() + substring(1).toLowerCase() creates four new strings,
+		// a TokenNormalizer does the same in a single pass
+		TokenNormalizer capitalize = TokenNormalizer.capitalize("");
+
 		final Optional<String> reduced = Arrays.stream(sentence.split(" "))
 				// We capitalize the first letter of each word
-				.map(word -> word.substring(0, 1).toUpperCase() + word.substring(1).toLowerCase())
+				.map(capitalize)
 				// We remove all the words that starts with a vowel
 				.filter(word -> !vowels.contains(word.charAt(0)))
 				// We concat all the words together
@@ -58,5 +65,28 @@ public class MapReduce {
 		} catch (Exception e) {
 			e.printStackTrace();
 		}
+
+		// Be careful with the reduction above: word1 + word2 creates a new String with a copy of all the words joined
+		// so far. With many words the cost grows with the square of the length of the output, and in a parallel
+		// stream each combination copies both halves again. A ChunkedText just keeps the references to the words, and
+		// copies them only once at the end
+		final ChunkedText joined = Arrays.stream(sentence.split(" "))
+				.parallel()
+				.map(capitalize)
+				.filter(word -> !vowels.contains(word.charAt(0)))
+				.collect(ChunkedText.joining());
+
+		System.out.println("Joined: " + joined);
+
+		// When the output is very big, we do not even need to build it: we can write it chunk by chunk
+		try {
+			final Writer out = new OutputStreamWriter(System.out);
+			out.write("Written: ");
+			joined.writeTo(out);
+			out.write(System.lineSeparator());
+			out.flush();
+		} catch (IOException e) {
+			e.printStackTrace();
+		}
 	}
 }
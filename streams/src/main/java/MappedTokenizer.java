@@ -0,0 +1,152 @@
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+/**
+ * Project: lambda-tricks
+ * <p>
+ * A source of tokens read from a file through memory mapping. The file is mapped with {@link FileChannel#map} one
+ * window at a time, and the tokens are cut directly from the mapped bytes: the content of the file never lands on the
+ * heap, only the token that is currently built and the {@link String} handed to the stream.
+ * <p>
+ * Tokens are separated by ASCII whitespaces (space, tab, new lines). Consecutive whitespaces do not produce empty
+ * tokens. The {@link Charset} of the file needs to be ASCII-compatible, like UTF-8 or ISO-8859-1.
+ */
+public class MappedTokenizer extends Spliterators.AbstractSpliterator<String> {
+
+	/**
+	 * Windows of 64MB keep the number of mappings low without reserving too much address space.
+	 */
+	public static final int DEFAULT_WINDOW_SIZE = 64 * 1024 * 1024;
+
+	private final FileChannel channel;
+	private final Charset charset;
+	private final int windowSize;
+	private final long fileSize;
+
+	private MappedByteBuffer window;
+	private long windowStart;
+
+	// Reusable buffer for the bytes of the current token, it grows only with the longest token found
+	private byte[] token = new byte[64];
+
+	private MappedTokenizer(FileChannel channel, Charset charset, int windowSize) throws IOException {
+		super(Long.MAX_VALUE, Spliterator.ORDERED | Spliterator.NONNULL | Spliterator.IMMUTABLE);
+		this.channel = channel;
+		this.charset = charset;
+		this.windowSize = windowSize;
+		this.fileSize = channel.size();
+		this.windowStart = 0;
+	}
+
+	/**
+	 * @param path file to read, encoded in UTF-8
+	 * @return a sequential {@link Stream} of the tokens of the file, that need to be closed after use
+	 * @throws IOException if the file cannot be opened
+	 */
+	public static Stream<String> tokens(Path path) throws IOException {
+		return tokens(path, StandardCharsets.UTF_8, DEFAULT_WINDOW_SIZE);
+	}
+
+	/**
+	 * @param path       file to read
+	 * @param charset    an ASCII-compatible charset used to decode the tokens
+	 * @param windowSize number of bytes mapped at once
+	 * @return a sequential {@link Stream} of the tokens of the file, that need to be closed after use
+	 * @throws IOException if the file cannot be opened
+	 */
+	public static Stream<String> tokens(Path path, Charset charset, int windowSize) throws IOException {
+		if (windowSize <= 0)
+			throw new IllegalArgumentException("Window size must be positive: " + windowSize);
+
+		final FileChannel channel = FileChannel.open(path, StandardOpenOption.READ);
+
+		try {
+			final MappedTokenizer tokenizer = new MappedTokenizer(channel, charset, windowSize);
+
+			return StreamSupport.stream(tokenizer, false)
+					.onClose(() -> {
+						try {
+							channel.close();
+						} catch (IOException e) {
+							throw new UncheckedIOException(e);
+						}
+					});
+		} catch (IOException | RuntimeException e) {
+			channel.close();
+			throw e;
+		}
+	}
+
+	@Override
+	public boolean tryAdvance(Consumer<? super String> action) {
+		int length = 0;
+
+		while (nextWindow()) {
+			while (window.hasRemaining()) {
+				final byte b = window.get();
+
+				if (isWhitespace(b)) {
+					if (length > 0) {
+						action.accept(new String(token, 0, length, charset));
+						return true;
+					}
+					continue;
+				}
+
+				if (length == token.length)
+					token = Arrays.copyOf(token, length * 2);
+
+				token[length++] = b;
+			}
+		}
+
+		// Last token of the file, not followed by a whitespace
+		if (length > 0) {
+			action.accept(new String(token, 0, length, charset));
+			return true;
+		}
+
+		return false;
+	}
+
+	/**
+	 * Maps the next region of the file when the current one is exhausted.
+	 *
+	 * @return false when the end of the file has been reached
+	 */
+	private boolean nextWindow() {
+		if (window != null && window.hasRemaining())
+			return true;
+
+		if (window != null)
+			windowStart += window.capacity();
+
+		if (windowStart >= fileSize)
+			return false;
+
+		try {
+			final long size = Math.min(windowSize, fileSize - windowStart);
+			window = channel.map(FileChannel.MapMode.READ_ONLY, windowStart, size);
+		} catch (IOException e) {
+			throw new UncheckedIOException(e);
+		}
+
+		return true;
+	}
+
+	private static boolean isWhitespace(byte b) {
+		return b == ' ' || b == '\n' || b == '\r' || b == '\t' || b == '\f' || b == 0x0B;
+	}
+}
@@ -0,0 +1,156 @@
+import java.nio.DoubleBuffer;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+
+/**
+ * Project: lambda-tricks
+ * <p>
+ * Metrics over primitive arrays, as an alternative to pipelines like
+ * <code>IntStream.range(0, n).map(i -> y[i] - p[i]).mapToDouble(x -> x * x).sum() / n</code> when the arrays have
+ * hundreds of millions of elements:
+ * <ul>
+ *     <li>each metric is a single fused loop, without streams and lambdas between the stages;</li>
+ *     <li>big arrays are split in chunks that are computed in parallel by the {@link ForkJoinPool#commonPool()};</li>
+ *     <li>with the multi-release jar on Java 17+, the loops over <code>double[]</code> use the Vector API (see
+ *     {@link MetricsKernel}).</li>
+ * </ul>
+ * The {@link DoubleBuffer} variants work also on direct (off-heap) buffers, from index 0 to the limit of the buffer.
+ * Since the parallel sums are computed in a different order, the results can differ from a sequential sum in the last
+ * digits.
+ */
+public class Metrics {
+
+	/**
+	 * Below this number of elements a chunk is computed by a single thread.
+	 */
+	static final int CHUNK_SIZE = 1 << 16;
+
+	/**
+	 * The sum of a range of elements.
+	 */
+	@FunctionalInterface
+	private interface RangeSum {
+		double sum(int from, int to);
+	}
+
+	private static final class SumTask extends RecursiveTask<Double> {
+
+		private static final long serialVersionUID = 1L;
+
+		private final RangeSum kernel;
+		private final int from;
+		private final int to;
+
+		SumTask(RangeSum kernel, int from, int to) {
+			this.kernel = kernel;
+			this.from = from;
+			this.to = to;
+		}
+
+		@Override
+		protected Double compute() {
+			if (to - from <= CHUNK_SIZE)
+				return kernel.sum(from, to);
+
+			final int mid = (from + to) >>> 1;
+			final SumTask left = new SumTask(kernel, from, mid);
+			left.fork();
+			final double right = new SumTask(kernel, mid, to).compute();
+			return left.join() + right;
+		}
+	}
+
+	private Metrics() {
+	}
+
+	/**
+	 * @return the name of the kernel used for <code>double[]</code>, "vector" or "scalar"
+	 */
+	public static String kernel() {
+		return MetricsKernel.name();
+	}
+
+	/**
+	 * @return the Mean Squared Error between the true and the predicted values
+	 */
+	public static double mse(int[] y, int[] p) {
+		final int n = checkLength(y.length, p.length);
+		return sum(n, (from, to) -> ScalarMetricsKernel.sumSquaredDiff(y, p, from, to)) / n;
+	}
+
+	/**
+	 * @return the Mean Squared Error between the true and the predicted values
+	 */
+	public static double mse(double[] y, double[] p) {
+		final int n = checkLength(y.length, p.length);
+		return sum(n, (from, to) -> MetricsKernel.sumSquaredDiff(y, p, from, to)) / n;
+	}
+
+	/**
+	 * @return the Mean Squared Error between the true and the predicted values
+	 */
+	public static double mse(DoubleBuffer y, DoubleBuffer p) {
+		final int n = checkLength(y.limit(), p.limit());
+		return sum(n, (from, to) -> ScalarMetricsKernel.sumSquaredDiff(y, p, from, to)) / n;
+	}
+
+	/**
+	 * @return the Mean Absolute Error between the true and the predicted values
+	 */
+	public static double mae(int[] y, int[] p) {
+		final int n = checkLength(y.length, p.length);
+		return sum(n, (from, to) -> ScalarMetricsKernel.sumAbsDiff(y, p, from, to)) / n;
+	}
+
+	/**
+	 * @return the Mean Absolute Error between the true and the predicted values
+	 */
+	public static double mae(double[] y, double[] p) {
+		final int n = checkLength(y.length, p.length);
+		return sum(n, (from, to) -> MetricsKernel.sumAbsDiff(y, p, from, to)) / n;
+	}
+
+	/**
+	 * @return the Mean Absolute Error between the true and the predicted values
+	 */
+	public static double mae(DoubleBuffer y, DoubleBuffer p) {
+		final int n = checkLength(y.limit(), p.limit());
+		return sum(n, (from, to) -> ScalarMetricsKernel.sumAbsDiff(y, p, from, to)) / n;
+	}
+
+	/**
+	 * @return the dot product of the two vectors
+	 */
+	public static double dot(double[] a, double[] b) {
+		final int n = checkLength(a.length, b.length);
+		return sum(n, (from, to) -> MetricsKernel.dot(a, b, from, to));
+	}
+
+	/**
+	 * @return the dot product of the two vectors
+	 */
+	public static double dot(DoubleBuffer a, DoubleBuffer b) {
+		final int n = checkLength(a.limit(), b.limit());
+		return sum(n, (from, to) -> ScalarMetricsKernel.dot(a, b, from, to));
+	}
+
+	/**
+	 * @return the fraction of the predicted labels that are equal to the true labels
+	 */
+	public static double accuracy(int[] y, int[] p) {
+		final int n = checkLength(y.length, p.length);
+		return sum(n, (from, to) -> ScalarMetricsKernel.countEqual(y, p, from, to)) / n;
+	}
+
+	private static double sum(int n, RangeSum kernel) {
+		if (n <= CHUNK_SIZE)
+			return kernel.sum(0, n);
+		return ForkJoinPool.commonPool().invoke(new SumTask(kernel, 0, n));
+	}
+
+	private static int checkLength(int a, int b) {
+		if (a != b)
+			throw new IllegalArgumentException("Arrays have different lengths: " + a + " != " + b);
+		return a;
+	}
+}
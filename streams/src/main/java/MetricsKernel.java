@@ -0,0 +1,31 @@
+/**
+ * Project: lambda-tricks
+ * <p>
+ * This is just a support class for {@link Metrics}: it chooses the implementation of the loops over
+ * <code>double[]</code>. This is the Java 11 version, that always uses the {@link ScalarMetricsKernel}. The
+ * multi-release jar contains also a Java 17 version of this class, that uses the Vector API when available.
+ */
+class MetricsKernel {
+
+	private MetricsKernel() {
+	}
+
+	/**
+	 * @return the name of the implementation in use
+	 */
+	static String name() {
+		return "scalar";
+	}
+
+	static double sumSquaredDiff(double[] a, double[] b, int from, int to) {
+		return ScalarMetricsKernel.sumSquaredDiff(a, b, from, to);
+	}
+
+	static double sumAbsDiff(double[] a, double[] b, int from, int to) {
+		return ScalarMetricsKernel.sumAbsDiff(a, b, from, to);
+	}
+
+	static double dot(double[] a, double[] b, int from, int to) {
+		return ScalarMetricsKernel.dot(a, b, from, to);
+	}
+}
@@ -0,0 +1,239 @@
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.function.ObjIntConsumer;
+
+/**
+ * Project: lambda-tricks
+ * <p>
+ * An open-addressing hash map from objects to primitive <code>int</code>s, built for counting. Keys and values live in
+ * two parallel arrays and collisions are resolved with linear probing, so an {@link #increment(Object)} on an existing
+ * key does not allocate anything: no boxed {@link Integer} and no map node, as it happens with a {@link HashMap}.
+ * <p>
+ * Keys cannot be <code>null</code>. This class is not thread-safe: in a parallel stream each thread works on its own
+ * map and the maps are then combined with {@link #merge(ObjectIntHashMap)}.
+ *
+ * @param <K> type of the keys
+ */
+public class ObjectIntHashMap<K> {
+
+	private static final int DEFAULT_EXPECTED_SIZE = 16;
+
+	// Linear probing degrades quickly when the table is full, we keep it at most half full
+	private static final int MAX_LOAD_FACTOR_INVERSE = 2;
+
+	private Object[] keys;
+	private int[] values;
+	private int mask;
+	private int size;
+
+	public ObjectIntHashMap() {
+		this(DEFAULT_EXPECTED_SIZE);
+	}
+
+	/**
+	 * @param expectedSize number of distinct keys that can be stored before the first resize
+	 */
+	public ObjectIntHashMap(int expectedSize) {
+		if (expectedSize < 0)
+			throw new IllegalArgumentException("Expected size cannot be negative: " + expectedSize);
+
+		allocate(tableSizeFor(expectedSize * MAX_LOAD_FACTOR_INVERSE));
+	}
+
+	/**
+	 * Adds 1 to the count of the given key. A key that is not in the map starts from 0.
+	 *
+	 * @param key the key to count
+	 * @return the new count of the key
+	 */
+	public int increment(K key) {
+		return increment(key, 1);
+	}
+
+	/**
+	 * Adds <code>delta</code> to the count of the given key. A key that is not in the map starts from 0.
+	 *
+	 * @param key   the key to count
+	 * @param delta the value to add
+	 * @return the new count of the key
+	 */
+	public int increment(K key, int delta) {
+		Objects.requireNonNull(key, "Key cannot be null");
+
+		int i = indexOf(key);
+
+		if (keys[i] == null) {
+			keys[i] = key;
+			values[i] = delta;
+
+			if (++size * MAX_LOAD_FACTOR_INVERSE > keys.length)
+				resize();
+
+			return delta;
+		}
+
+		return values[i] += delta;
+	}
+
+	/**
+	 * @param key the key to search for
+	 * @return the count of the key, or 0 if the key is not in the map
+	 */
+	public int get(Object key) {
+		if (key == null)
+			return 0;
+
+		int i = indexOf(key);
+		return keys[i] == null ? 0 : values[i];
+	}
+
+	/**
+	 * Removes the given key from the map. The entries that follow the key in its probing sequence are moved back, so
+	 * no tombstone is left in the table.
+	 *
+	 * @param key the key to remove
+	 * @return the count of the removed key, or 0 if the key was not in the map
+	 */
+	public int remove(Object key) {
+		if (key == null)
+			return 0;
+
+		int i = indexOf(key);
+		if (keys[i] == null)
+			return 0;
+
+		final int removed = values[i];
+
+		// An entry after the hole can fill it only if its ideal slot is not between the hole and the entry itself
+		for (int j = (i + 1) & mask; keys[j] != null; j = (j + 1) & mask) {
+			final int ideal = spread(keys[j].hashCode()) & mask;
+
+			if (((j - ideal) & mask) >= ((j - i) & mask)) {
+				keys[i] = keys[j];
+				values[i] = values[j];
+				i = j;
+			}
+		}
+
+		keys[i] = null;
+		values[i] = 0;
+		size--;
+
+		return removed;
+	}
+
+	/**
+	 * Removes all the keys, without releasing the memory of the table.
+	 */
+	public void clear() {
+		Arrays.fill(keys, null);
+		size = 0;
+	}
+
+	public boolean containsKey(Object key) {
+		return key != null && keys[indexOf(key)] != null;
+	}
+
+	public int size() {
+		return size;
+	}
+
+	public boolean isEmpty() {
+		return size == 0;
+	}
+
+	/**
+	 * Performs the given action on each key-count pair of the map, without boxing the counts.
+	 *
+	 * @param action the action to perform
+	 */
+	@SuppressWarnings("unchecked")
+	public void forEach(ObjIntConsumer<? super K> action) {
+		for (int i = 0; i < keys.length; i++)
+			if (keys[i] != null)
+				action.accept((K) keys[i], values[i]);
+	}
+
+	/**
+	 * Adds all the counts of the other map to this map. The other map is not modified.
+	 *
+	 * @param other the map to merge in this map
+	 * @return this map
+	 */
+	public ObjectIntHashMap<K> merge(ObjectIntHashMap<? extends K> other) {
+		other.forEach(this::increment);
+		return this;
+	}
+
+	/**
+	 * This is the only place where the counts are boxed: use it at the end of a pipeline when a {@link Map} is needed.
+	 *
+	 * @return a new {@link HashMap} with the same content of this map
+	 */
+	public Map<K, Integer> toMap() {
+		final Map<K, Integer> map = new HashMap<>(size * 2);
+		forEach(map::put);
+		return map;
+	}
+
+	@Override
+	public String toString() {
+		final StringBuilder sb = new StringBuilder("{");
+		forEach((k, v) -> sb.append(sb.length() > 1 ? ", " : "").append(k).append('=').append(v));
+		return sb.append('}').toString();
+	}
+
+	/**
+	 * @return the slot where the key is stored, or the empty slot where it should be inserted
+	 */
+	private int indexOf(Object key) {
+		int i = spread(key.hashCode()) & mask;
+
+		while (keys[i] != null && !keys[i].equals(key))
+			i = (i + 1) & mask;
+
+		return i;
+	}
+
+	private void resize() {
+		final Object[] oldKeys = keys;
+		final int[] oldValues = values;
+
+		allocate(oldKeys.length * 2);
+
+		for (int j = 0; j < oldKeys.length; j++) {
+			if (oldKeys[j] == null)
+				continue;
+
+			int i = spread(oldKeys[j].hashCode()) & mask;
+			while (keys[i] != null)
+				i = (i + 1) & mask;
+
+			keys[i] = oldKeys[j];
+			values[i] = oldValues[j];
+		}
+	}
+
+	private void allocate(int capacity) {
+		keys = new Object[capacity];
+		values = new int[capacity];
+		mask = capacity - 1;
+	}
+
+	/**
+	 * Strings, and many other keys, have poor low bits: we mix them with the high bits before applying the mask.
+	 */
+	static int spread(int h) {
+		h *= 0x9E3779B9;
+		return h ^ (h >>> 16);
+	}
+
+	/**
+	 * @return the smallest power of two greater or equal to the given capacity
+	 */
+	static int tableSizeFor(int capacity) {
+		return Math.max(2, Integer.highestOneBit(Math.max(1, capacity - 1)) << 1);
+	}
+}
@@ -0,0 +1,113 @@
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.DoubleBuffer;
+import java.util.function.DoubleSupplier;
+import java.util.stream.IntStream;
+
+/**
+ * Project: lambda-tricks
+ */
+public class PrimitiveMetrics {
+
+	/**
+	 * In the {@link PrimitiveStreams} example we computed the Mean Squared Error with a chain of
+	 * {@link IntStream} operations. Here we measure how much time this takes with big arrays, and we compare it with
+	 * the fused, chunk-parallel loops of {@link Metrics}.
+	 * <p>
+	 * To use the Vector API, build the jar with Java 17+ and run it with:
+	 * <pre>
+	 * java --add-modules jdk.incubator.vector -cp target/streams-1.0-SNAPSHOT.jar PrimitiveMetrics
+	 * </pre>
+	 *
+	 * @param args optional number of elements of the arrays (default 10 millions)
+	 */
+	public static void main(String[] args) {
+
+		final int n = args.length > 0 ? Integer.parseInt(args[0]) : 10_000_000;
+
+		System.out.println("Elements: " + n + ", cores: " + Runtime.getRuntime().availableProcessors()
+				+ ", kernel: " + Metrics.kernel());
+
+		final RandomArrays r = new RandomArrays(42);
+		final int[] trueY = r.ints(n, 2);
+		final int[] predY = r.bernoulli(n, 0.6);
+		final double[] trueD = r.doubles(n);
+		final double[] predD = r.doubles(n);
+
+		// The same values, but off-heap
+		final DoubleBuffer trueB = ByteBuffer.allocateDirect(n * Double.BYTES).order(ByteOrder.nativeOrder())
+				.asDoubleBuffer().put(trueD);
+		final DoubleBuffer predB = ByteBuffer.allocateDirect(n * Double.BYTES).order(ByteOrder.nativeOrder())
+				.asDoubleBuffer().put(predD);
+
+		// This is the pipeline of the PrimitiveStreams example
+		compare("MSE int[]",
+				() -> IntStream.range(0, n)
+						.map(i -> trueY[i] - predY[i])
+						.mapToDouble(x -> x * x)
+						.sum() / n,
+				() -> Metrics.mse(trueY, predY)
+		);
+
+		compare("MSE double[]",
+				() -> IntStream.range(0, n)
+						.mapToDouble(i -> trueD[i] - predD[i])
+						.map(x -> x * x)
+						.sum() / n,
+				() -> Metrics.mse(trueD, predD)
+		);
+
+		compare("MAE double[]",
+				() -> IntStream.range(0, n)
+						.mapToDouble(i -> Math.abs(trueD[i] - predD[i]))
+						.sum() / n,
+				() -> Metrics.mae(trueD, predD)
+		);
+
+		compare("DOT double[]",
+				() -> IntStream.range(0, n)
+						.mapToDouble(i -> trueD[i] * predD[i])
+						.sum(),
+				() -> Metrics.dot(trueD, predD)
+		);
+
+		compare("DOT off-heap",
+				() -> IntStream.range(0, n)
+						.mapToDouble(i -> trueB.get(i) * predB.get(i))
+						.sum(),
+				() -> Metrics.dot(trueB, predB)
+		);
+
+		compare("ACCURACY int[]",
+				() -> IntStream.range(0, n)
+						.filter(i -> trueY[i] == predY[i])
+						.count() / (double) n,
+				() -> Metrics.accuracy(trueY, predY)
+		);
+	}
+
+	/**
+	 * Runs both versions a few times to warm up the JIT, then prints the best time of each one.
+	 */
+	private static void compare(String name, DoubleSupplier stream, DoubleSupplier kernel) {
+		final long streamTime = best(stream);
+		final long kernelTime = best(kernel);
+
+		System.out.printf("%-15s stream: %8.2fms (%.6f)   kernel: %8.2fms (%.6f)   speedup: %5.2fx%n",
+				name,
+				streamTime / 1e6, stream.getAsDouble(),
+				kernelTime / 1e6, kernel.getAsDouble(),
+				(double) streamTime / kernelTime
+		);
+	}
+
+	private static long best(DoubleSupplier task) {
+		long best = Long.MAX_VALUE;
+		for (int i = 0; i < 10; i++) {
+			final long start = System.nanoTime();
+			task.getAsDouble();
+			best = Math.min(best, System.nanoTime() - start);
+		}
+		return best;
+	}
+}
@@ -54,6 +54,19 @@ public class PrimitiveStreams {
 
 		System.out.println("MSE: " + mse);
 
+		// Be careful with the Random object captured by the lambdas above: if we make those streams parallel, all the
+		// threads will update the same seed of the generator (that becomes slow), and which number goes to which
+		// element depends on the threads (that makes the results not reproducible). A RandomArrays generator gives
+		// each chunk of the array its own generator, so the arrays are filled in parallel and are always the same.
+		// With 10 elements there is nothing to split, so here we generate 10 million of them
+		final int size = 10_000_000;
+		final RandomArrays random = new RandomArrays(42);
+		final int[] trueY = random.ints(size, 2);
+		final int[] predY = random.bernoulli(size, 0.6);
+
+		// And to compute metrics over big arrays, Metrics has fused loops that run in parallel
+		System.out.println("MSE (parallel, " + size + " elements): " + Metrics.mse(trueY, predY));
+
 	}
 
 }
@@ -0,0 +1,99 @@
+import java.util.SplittableRandom;
+import java.util.stream.IntStream;
+
+/**
+ * Project: lambda-tricks
+ * <p>
+ * Generator of arrays of random primitives that works in parallel and is reproducible. Capturing a shared
+ * {@link java.util.Random} in the lambda of a parallel stream has two problems: all the threads update the same seed
+ * with a CAS, and the values that each element receives depend on the order of the threads.
+ * <p>
+ * Here each array is divided in fixed chunks, and each chunk has its own {@link SplittableRandom} with a seed derived
+ * from the seed of the generator, the number of the array, and the number of the chunk. The chunks are filled in
+ * parallel without sharing anything, and the output is always the same for the same seed, no matter how many threads
+ * are used.
+ * <p>
+ * Each call generates a new array, different from the previous ones: the sequence of the arrays generated by an
+ * instance depends only on the seed. This class is not thread-safe.
+ */
+public class RandomArrays {
+
+	static final int CHUNK_SIZE = 1 << 14;
+
+	/**
+	 * Fills the range of a chunk with the generator of the chunk.
+	 */
+	@FunctionalInterface
+	private interface ChunkFiller {
+		void fill(SplittableRandom r, int from, int to);
+	}
+
+	private final long seed;
+	private long arrays;
+
+	/**
+	 * @param seed the seed of the generator
+	 */
+	public RandomArrays(long seed) {
+		this.seed = seed;
+	}
+
+	/**
+	 * @param n     length of the array
+	 * @param bound upper bound (exclusive) of the values
+	 * @return an array of uniform random integers in <code>[0, bound)</code>
+	 */
+	public int[] ints(int n, int bound) {
+		if (bound <= 0)
+			throw new IllegalArgumentException("Bound must be positive: " + bound);
+
+		final int[] values = new int[n];
+		fill(n, (r, from, to) -> {
+			for (int i = from; i < to; i++)
+				values[i] = r.nextInt(bound);
+		});
+		return values;
+	}
+
+	/**
+	 * @param n length of the array
+	 * @param p probability of a 1
+	 * @return an array of 0s and 1s, where each value is 1 with probability <code>p</code>
+	 */
+	public int[] bernoulli(int n, double p) {
+		final int[] values = new int[n];
+		fill(n, (r, from, to) -> {
+			for (int i = from; i < to; i++)
+				values[i] = r.nextDouble() < p ? 1 : 0;
+		});
+		return values;
+	}
+
+	/**
+	 * @param n length of the array
+	 * @return an array of uniform random doubles in <code>[0, 1)</code>
+	 */
+	public double[] doubles(int n) {
+		final double[] values = new double[n];
+		fill(n, (r, from, to) -> {
+			for (int i = from; i < to; i++)
+				values[i] = r.nextDouble();
+		});
+		return values;
+	}
+
+	private void fill(int n, ChunkFiller filler) {
+		final long array = arrays++;
+		final int chunks = (int) (((long) n + CHUNK_SIZE - 1) / CHUNK_SIZE);
+
+		IntStream.range(0, chunks)
+				.parallel()
+				.forEach(c -> filler.fill(
+						new SplittableRandom(
+								Hashing.mix(seed + Hashing.GOLDEN * Hashing.mix(array + Hashing.GOLDEN * c))
+						),
+						c * CHUNK_SIZE,
+						(int) Math.min(n, (c + 1L) * CHUNK_SIZE)
+				));
+	}
+}
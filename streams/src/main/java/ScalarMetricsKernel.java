@@ -0,0 +1,83 @@
+import java.nio.DoubleBuffer;
+
+/**
+ * Project: lambda-tricks
+ * <p>
+ * This is just a support class for {@link Metrics}: the plain loops that compute the partial sums of a range of
+ * elements. Each metric is a single fused loop, without intermediate arrays or streams.
+ */
+class ScalarMetricsKernel {
+
+	private ScalarMetricsKernel() {
+	}
+
+	static double sumSquaredDiff(double[] a, double[] b, int from, int to) {
+		double sum = 0.0;
+		for (int i = from; i < to; i++) {
+			final double d = a[i] - b[i];
+			sum += d * d;
+		}
+		return sum;
+	}
+
+	static double sumAbsDiff(double[] a, double[] b, int from, int to) {
+		double sum = 0.0;
+		for (int i = from; i < to; i++)
+			sum += Math.abs(a[i] - b[i]);
+		return sum;
+	}
+
+	static double dot(double[] a, double[] b, int from, int to) {
+		double sum = 0.0;
+		for (int i = from; i < to; i++)
+			sum += a[i] * b[i];
+		return sum;
+	}
+
+	static long sumSquaredDiff(int[] a, int[] b, int from, int to) {
+		long sum = 0;
+		for (int i = from; i < to; i++) {
+			final long d = (long) a[i] - b[i];
+			sum += d * d;
+		}
+		return sum;
+	}
+
+	static long sumAbsDiff(int[] a, int[] b, int from, int to) {
+		long sum = 0;
+		for (int i = from; i < to; i++)
+			sum += Math.abs((long) a[i] - b[i]);
+		return sum;
+	}
+
+	static long countEqual(int[] a, int[] b, int from, int to) {
+		long count = 0;
+		for (int i = from; i < to; i++)
+			if (a[i] == b[i])
+				count++;
+		return count;
+	}
+
+	static double sumSquaredDiff(DoubleBuffer a, DoubleBuffer b, int from, int to) {
+		double sum = 0.0;
+		for (int i = from; i < to; i++) {
+			final double d = a.get(i) - b.get(i);
+			sum += d * d;
+		}
+		return sum;
+	}
+
+	static double sumAbsDiff(DoubleBuffer a, DoubleBuffer b, int from, int to) {
+		double sum = 0.0;
+		for (int i = from; i < to; i++)
+			sum += Math.abs(a.get(i) - b.get(i));
+		return sum;
+	}
+
+	static double dot(DoubleBuffer a, DoubleBuffer b, int from, int to) {
+		double sum = 0.0;
+		for (int i = from; i < to; i++)
+			sum += a.get(i) * b.get(i);
+		return sum;
+	}
+}
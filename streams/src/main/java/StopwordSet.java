@@ -0,0 +1,261 @@
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.function.Predicate;
+
+/**
+ * Project: lambda-tricks
+ * <p>
+ * An immutable set of stopwords compiled once from a list of words. It can be used in place of
+ * <code>Set.of("the", "is", ...)</code> with big lists of stopwords, where most of the words of a text are not in the
+ * set and each lookup should cost as little as possible.
+ * <p>
+ * A lookup computes a single 64-bit hash of the word, that is then used twice:
+ * <ol>
+ *     <li>a Bloom filter rejects most of the words that are not stopwords, without looking at the table;</li>
+ *     <li>the other words are searched in a minimal perfect hash table (built with the <i>hash and displace</i>
+ *     algorithm): there is exactly one slot to check, so there is at most one full comparison.</li>
+ * </ol>
+ * Words can be searched as {@link String}s, as slices of a {@link CharSequence} or of a <code>char[]</code>, and as
+ * slices of UTF-8 encoded bytes, like the ones read by a tokenizer.
+ */
+public class StopwordSet implements Predicate<String> {
+
+	// Bloom filter: ~10 bits per word and 7 hash functions give a false positive rate of about 1%
+	private static final int BLOOM_BITS_PER_WORD = 10;
+	private static final int BLOOM_HASHES = 7;
+
+	// Hash and displace: on average 4 words per bucket keeps the search of the displacements fast
+	private static final int WORDS_PER_BUCKET = 4;
+	private static final int MAX_DISPLACEMENT = 1 << 20;
+
+	private final String[] table;
+	private final int[] displacements;
+	private final long[] bloom;
+	private final int bloomMask;
+
+	private StopwordSet(String[] table, int[] displacements, long[] bloom) {
+		this.table = table;
+		this.displacements = displacements;
+		this.bloom = bloom;
+		this.bloomMask = bloom.length * Long.SIZE - 1;
+	}
+
+	/**
+	 * @param words the stopwords
+	 * @return a new set with the given stopwords
+	 */
+	public static StopwordSet of(String... words) {
+		return of(Arrays.asList(words));
+	}
+
+	/**
+	 * @param words the stopwords, duplicates are ignored
+	 * @return a new set with the given stopwords
+	 */
+	public static StopwordSet of(Collection<String> words) {
+		final String[] unique = new LinkedHashSet<>(words).toArray(new String[0]);
+		final int n = unique.length;
+
+		final long[] hashes = new long[n];
+		for (int i = 0; i < n; i++)
+			hashes[i] = hash(unique[i], 0, unique[i].length());
+
+		// Bloom filter
+		final int bloomBits = Math.max(Long.SIZE, Integer.highestOneBit(Math.max(1, n * BLOOM_BITS_PER_WORD)) << 1);
+		final long[] bloom = new long[bloomBits / Long.SIZE];
+		for (long h : hashes)
+			for (int k = 0; k < BLOOM_HASHES; k++) {
+				final int bit = bloomBit(h, k, bloomBits - 1);
+				bloom[bit >>> 6] |= 1L << bit;
+			}
+
+		// Hash and displace: the words are grouped in buckets, then the buckets are placed from the biggest to the
+		// smallest, searching for each bucket a displacement that puts all its words in free slots of the table
+		final int buckets = Math.max(1, (n + WORDS_PER_BUCKET - 1) / WORDS_PER_BUCKET);
+		final List<List<Integer>> byBucket = new ArrayList<>(buckets);
+		for (int b = 0; b < buckets; b++)
+			byBucket.add(new ArrayList<>());
+		for (int i = 0; i < n; i++)
+			byBucket.get(bucket(hashes[i], buckets)).add(i);
+
+		final Integer[] order = new Integer[buckets];
+		for (int b = 0; b < buckets; b++)
+			order[b] = b;
+		Arrays.sort(order, (a, b) -> byBucket.get(b).size() - byBucket.get(a).size());
+
+		final String[] table = new String[n];
+		final int[] displacements = new int[buckets];
+		final int[] slots = new int[byBucket.get(order[0]).size()];
+
+		for (int b : order) {
+			final List<Integer> bucket = byBucket.get(b);
+			if (bucket.isEmpty())
+				break;
+
+			int d = 0;
+			while (!fits(bucket, hashes, d, table, slots)) {
+				if (++d == MAX_DISPLACEMENT)
+					throw new IllegalStateException("Cannot build a perfect hash for " + n + " words");
+			}
+
+			displacements[b] = d;
+			for (int i : bucket)
+				table[slot(hashes[i], d, n)] = unique[i];
+		}
+
+		return new StopwordSet(table, displacements, bloom);
+	}
+
+	/**
+	 * @return true if, with the displacement d, all the words go in different free slots
+	 */
+	private static boolean fits(List<Integer> words, long[] hashes, int d, String[] table, int[] slots) {
+		for (int j = 0; j < words.size(); j++) {
+			final int s = slot(hashes[words.get(j)], d, table.length);
+
+			if (table[s] != null)
+				return false;
+			for (int k = 0; k < j; k++)
+				if (slots[k] == s)
+					return false;
+
+			slots[j] = s;
+		}
+		return true;
+	}
+
+	public int size() {
+		return table.length;
+	}
+
+	/**
+	 * Same as {@link #contains(String)}, so that the set can be used where a {@link Predicate} is needed, as an
+	 * example in <code>.filter(stopwords.negate())</code>.
+	 */
+	@Override
+	public boolean test(String word) {
+		return contains(word);
+	}
+
+	public boolean contains(String word) {
+		return contains(word, 0, word.length());
+	}
+
+	/**
+	 * @param text text that contains the word
+	 * @param from index of the first character of the word (inclusive)
+	 * @param to   index of the last character of the word (exclusive)
+	 * @return true if the word is a stopword
+	 */
+	public boolean contains(CharSequence text, int from, int to) {
+		final long h = hash(text, from, to);
+		if (!mightContain(h))
+			return false;
+
+		final String candidate = candidate(h);
+		if (candidate.length() != to - from)
+			return false;
+		for (int i = 0; i < candidate.length(); i++)
+			if (candidate.charAt(i) != text.charAt(from + i))
+				return false;
+		return true;
+	}
+
+	/**
+	 * @param chars  characters that contain the word
+	 * @param offset index of the first character of the word
+	 * @param length number of characters of the word
+	 * @return true if the word is a stopword
+	 */
+	public boolean contains(char[] chars, int offset, int length) {
+		long h = 0;
+		for (int i = offset; i < offset + length; i++)
+			h = (h ^ chars[i]) * Hashing.GOLDEN;
+		h = Hashing.mix(h ^ length);
+
+		if (!mightContain(h))
+			return false;
+
+		final String candidate = candidate(h);
+		if (candidate.length() != length)
+			return false;
+		for (int i = 0; i < length; i++)
+			if (candidate.charAt(i) != chars[offset + i])
+				return false;
+		return true;
+	}
+
+	/**
+	 * @param bytes  UTF-8 encoded bytes that contain the word
+	 * @param offset index of the first byte of the word
+	 * @param length number of bytes of the word
+	 * @return true if the word is a stopword
+	 */
+	public boolean contains(byte[] bytes, int offset, int length) {
+		// An ASCII byte is also a char with the same value, so we can hash the bytes directly...
+		long h = 0;
+		for (int i = offset; i < offset + length; i++) {
+			if (bytes[i] < 0)
+				// ...but other characters need to be decoded
+				return contains(new String(bytes, offset, length, StandardCharsets.UTF_8));
+
+			h = (h ^ bytes[i]) * Hashing.GOLDEN;
+		}
+		h = Hashing.mix(h ^ length);
+
+		if (!mightContain(h))
+			return false;
+
+		final String candidate = candidate(h);
+		if (candidate.length() != length)
+			return false;
+		for (int i = 0; i < length; i++)
+			if (candidate.charAt(i) != bytes[offset + i])
+				return false;
+		return true;
+	}
+
+	private boolean mightContain(long h) {
+		for (int k = 0; k < BLOOM_HASHES; k++) {
+			final int bit = bloomBit(h, k, bloomMask);
+			if ((bloom[bit >>> 6] & (1L << bit)) == 0)
+				return false;
+		}
+		return true;
+	}
+
+	/**
+	 * @return the only word of the table that can be equal to the word with the given hash
+	 */
+	private String candidate(long h) {
+		return table[slot(h, displacements[bucket(h, displacements.length)], table.length)];
+	}
+
+	private static long hash(CharSequence text, int from, int to) {
+		long h = 0;
+		for (int i = from; i < to; i++)
+			h = (h ^ text.charAt(i)) * Hashing.GOLDEN;
+		return Hashing.mix(h ^ (to - from));
+	}
+
+	/**
+	 * Double hashing: the k-th bit is derived from the two halves of the 64-bit hash.
+	 */
+	private static int bloomBit(long h, int k, int mask) {
+		final int h1 = (int) h;
+		final int h2 = (int) (h >>> 32) | 1;
+		return (h1 + k * h2) & mask;
+	}
+
+	private static int bucket(long h, int buckets) {
+		return (int) ((h >>> 1) % buckets);
+	}
+
+	private static int slot(long h, int displacement, int size) {
+		return (int) ((Hashing.mix(h + displacement * Hashing.GOLDEN) >>> 1) % size);
+	}
+}
@@ -0,0 +1,55 @@
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.stream.Stream;
+
+/**
+ * Project: lambda-tricks
+ */
+public class StreamFromFile {
+
+	/**
+	 * All the other examples start from a {@link String} split in words. When the text comes from a file that is
+	 * bigger than the available memory, this is not possible anymore: in this example we read the words directly from
+	 * a memory mapped file with the {@link MappedTokenizer}, and we use the same pipeline of the {@link Streams}
+	 * example.
+	 *
+	 * @param args optional path of the file to read, if missing a temporary file is created
+	 */
+	public static void main(String[] args) throws IOException {
+
+		final Path path;
+
+		if (args.length > 0) {
+			path = Path.of(args[0]);
+		} else {
+			// We create a file with many copies of the sentence of the Streams example
+			path = Files.createTempFile("lambda-tricks", ".txt");
+			path.toFile().deleteOnExit();
+
+			try (BufferedWriter writer = Files.newBufferedWriter(path)) {
+				for (int i = 0; i < 100_000; i++)
+					writer.write("The cat Fluffy, the White Cat, is sleeping on the lap.\n");
+			}
+		}
+
+		// The stopwords are compiled once in a perfect hash table with a Bloom filter in front
+		StopwordSet stopwords = StopwordSet.of("the", "is", "on");
+
+		// With millions of words, a single stage to lowercase and clean them saves a lot of garbage
+		final TokenNormalizer normalizer = TokenNormalizer.lowercase(".,");
+
+		// The stream keeps the file open: we need to close it, and the try-with-resources will do it for us
+		try (Stream<String> tokens = MappedTokenizer.tokens(path)) {
+
+			final ObjectLongHashMap<String> counts = tokens
+					.map(normalizer)
+					.filter(word -> !stopwords.contains(word))
+					.collect(CountingCollectors.countingLong());
+
+			System.out.println("FILE COUNTS: " + counts);
+		}
+	}
+
+}
@@ -41,6 +41,29 @@ public class StreamInParallel {
 				);
 
 		System.out.println("Counts: " + counts);
+
+		// Note that the split() above is done by the main thread before the parallel stream starts: with a long text,
+		// the tokenization is still serial. A WordSpliterator cuts the text itself in halves, so each worker of the
+		// parallel stream tokenizes its own part
+		final String text = (sentence + " ").repeat(100_000);
+
+		// With many threads, toConcurrentMap() has a problem: words like "a" are everywhere, so all the threads try to
+		// update the same few entries of the map, and each update boxes a new Integer. A ConcurrentCounter gives each
+		// word a LongAdder, that spreads the updates of the same word on different cells
+		final ConcurrentCounter<String> textCounts = WordSpliterator.stream(text, true)
+				.map(String::toLowerCase)
+				.collect(CountingCollectors.countingConcurrent());
+
+		System.out.println("Text counts: " + textCounts);
+
+		// When the number of distinct words has no limit, we cannot keep a counter for each of them. If we just need the
+		// most frequent words, we can find them in a fixed amount of memory: here the counts have an error of at most
+		// 0.1% of the words, with a probability of 99%
+		final HeavyHitters<String> top = WordSpliterator.stream(text, true)
+				.map(String::toLowerCase)
+				.collect(CountingCollectors.heavyHitters(3, 0.001, 0.01));
+
+		System.out.println("Top 3: " + top);
 	}
 
 }
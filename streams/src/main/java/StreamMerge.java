@@ -62,6 +62,18 @@ public class StreamMerge {
 
 		System.out.println("counts: " + counts);
 
+		// The same merge can be counted without boxing an Integer for each word, each stream can clean and lowercase
+		// its words in a single stage, and the stopwords can be compiled in a StopwordSet. Note that the two streams
+		// above are already consumed, so we need to build them again
+		ObjectIntHashMap<String> primitiveCounts = Stream.concat(
+						tokens1.stream().map(TokenNormalizer.lowercase(".,!")),
+						tokens2.stream().filter(word -> !word.equals("-")).map(TokenNormalizer.lowercase(""))
+				)
+				.filter(StopwordSet.of(stopwords).negate())
+				.collect(CountingCollectors.countingInt());
+
+		System.out.println("primitive counts: " + primitiveCounts);
+
 	}
 
 }
@@ -0,0 +1,49 @@
+/**
+ * Project: lambda-tricks
+ */
+public class StreamWindows {
+
+	/**
+	 * In the {@link StreamMerge} example, two finite streams are merged and counted once. When the sources never end,
+	 * as it happens with logs or messages, we cannot wait for the end of the stream: we count the words in windows of
+	 * time instead. In this example we use a {@link WindowedCounter} with two sources, each one with the same
+	 * pre-processing of the streams of the {@link StreamMerge} example.
+	 *
+	 * @param args ignored
+	 */
+	public static void main(String[] args) {
+
+		final TokenNormalizer normalizer = TokenNormalizer.lowercase(".,!");
+		final StopwordSet stopwords = StopwordSet.of("a", "is", "it", "of", "this");
+
+		// Every 10 seconds, we want the counts of the last 30 seconds
+		final WindowedCounter counter = WindowedCounter.sliding(30_000, 10_000,
+				(start, end, counts) -> System.out.printf("[%3ds, %3ds) %s%n", start / 1000, end / 1000, counts)
+		);
+
+		// The first source needs to remove some punctuations...
+		final WindowedCounter.Source source1 = counter.source(words -> words
+				.map(normalizer)
+				.filter(stopwords.negate())
+		);
+
+		// ...the second source instead is full of "-" symbols
+		final WindowedCounter.Source source2 = counter.source(words -> words
+				.filter(word -> !word.equals("-"))
+				.map(normalizer)
+				.filter(stopwords.negate())
+		);
+
+		// We simulate one minute of records, one every few seconds
+		for (long time = 0; time < 60_000; time += 4_000) {
+			source1.accept(time, "This IS, a caSe of VERy dirty... sentence... JUst, clean, it!");
+
+			if (time % 12_000 == 0)
+				source2.accept(time + 1_000, "- THIS - OTHER - SENTENCE - IS - JUST - UPPER - CASE -");
+		}
+
+		// There are no more records: we move the time forward to close the last windows
+		counter.advance(90_000);
+	}
+
+}
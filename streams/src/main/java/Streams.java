@@ -1,3 +1,6 @@
+import java.io.BufferedWriter;
+import java.io.OutputStreamWriter;
+import java.io.PrintWriter;
 import java.util.*;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
@@ -68,6 +71,10 @@ public class Streams {
 
 		// What is the same procedure using Java streams?
 
+		// A buffered writer collects the debug lines in memory and writes them all together at the flush, instead of
+		// writing to the console, that is slow, once for each word like System.out
+		final PrintWriter debug = new PrintWriter(new BufferedWriter(new OutputStreamWriter(System.out)));
+
 		final Map<String, Long> streamCounts = words
 				// Take all the words as a stream of data
 				.stream()
@@ -78,7 +85,7 @@ public class Streams {
 				// Remove stopwords (we use the filter and another lambda)
 				.filter(word -> !stopwords.contains(word))
 				// This is just for debug purposes: we print the whole content of the collections and continue
-				.peek(System.out::println)
+				.peek(debug::println)
 				// Count the occurrences (using a special collector)
 				.collect(
 						// This collector will build a Map by grouping the keys and performing something with the values
@@ -88,8 +95,25 @@ public class Streams {
 						)
 				);
 
+		debug.flush();
 		System.out.println("STREAM COUNTS: " + streamCounts);
 
+		// The counting() collector boxes a new Long and the map allocates a node for each word. With millions of words
+		// this becomes a lot of garbage: CountingCollectors does the same job with a map of primitive counters.
+		// In the same way, each map() stage above creates a new String and replaceAll() compiles a new regex for every
+		// word: a TokenNormalizer does both operations in a single pass
+		final TokenNormalizer normalizer = TokenNormalizer.lowercase(".,");
+
+		// With thousands of stopwords, a StopwordSet rejects most of the words with just a hash and a Bloom filter
+		final StopwordSet compiledStopwords = StopwordSet.of(stopwords);
+
+		final ObjectLongHashMap<String> primitiveCounts = words.stream()
+				.map(normalizer)
+				.filter(compiledStopwords.negate())
+				.collect(CountingCollectors.countingLong());
+
+		System.out.println("PRIMITIVE COUNTS: " + primitiveCounts);
+
 		// In the case of a sequence of operations to perform on a collection of data, the Streams are very useful and
 		// keep the code short to write and easy to understand. It's not something NEW, it just the same with a
 		// different syntax and some pre-defined code
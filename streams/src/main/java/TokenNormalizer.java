@@ -0,0 +1,124 @@
+import java.util.Arrays;
+import java.util.function.UnaryOperator;
+
+/**
+ * Project: lambda-tricks
+ * <p>
+ * A single stage that replaces chains like <code>.map(String::toLowerCase).map(w -> w.replaceAll("[.,]", ""))</code>.
+ * Each of those stages creates a new {@link String}, and {@link String#replaceAll(String, String)} compiles a new
+ * regex for every word. This normalizer instead lowercases, removes the punctuation, and optionally capitalizes the
+ * first letter in a single pass over the characters:
+ * <ul>
+ *     <li>if the word is already normalized, the same {@link String} is returned and nothing is allocated;</li>
+ *     <li>otherwise the characters are written in a per-thread buffer that is reused, and only the final
+ *     {@link String} is created.</li>
+ * </ul>
+ * Case conversion is done char by char with {@link Character#toLowerCase(char)} and
+ * {@link Character#toUpperCase(char)}, so it does not depend on the default locale.
+ * <p>
+ * Instances are immutable and can be shared between threads, also in parallel streams.
+ */
+public class TokenNormalizer implements UnaryOperator<String> {
+
+	private static final ThreadLocal<char[]> BUFFER = ThreadLocal.withInitial(() -> new char[64]);
+
+	// Punctuation lookup: a table for ASCII characters, a sorted array for everything else
+	private final boolean[] asciiPunctuation = new boolean[128];
+	private final char[] otherPunctuation;
+
+	private final boolean capitalize;
+
+	/**
+	 * @param punctuation all the characters to remove from the words, as in <code>"[.,!]"</code> but without the
+	 *                    brackets
+	 * @param capitalize  if true the first letter is in uppercase, otherwise all the letters are in lowercase
+	 */
+	public TokenNormalizer(String punctuation, boolean capitalize) {
+		this.capitalize = capitalize;
+
+		final StringBuilder others = new StringBuilder();
+		for (char c : punctuation.toCharArray()) {
+			if (c < asciiPunctuation.length)
+				asciiPunctuation[c] = true;
+			else
+				others.append(c);
+		}
+
+		this.otherPunctuation = others.toString().toCharArray();
+		Arrays.sort(otherPunctuation);
+	}
+
+	/**
+	 * @param punctuation all the characters to remove from the words
+	 * @return a normalizer that produces lowercase words
+	 */
+	public static TokenNormalizer lowercase(String punctuation) {
+		return new TokenNormalizer(punctuation, false);
+	}
+
+	/**
+	 * @param punctuation all the characters to remove from the words
+	 * @return a normalizer that produces lowercase words with the first letter in uppercase
+	 */
+	public static TokenNormalizer capitalize(String punctuation) {
+		return new TokenNormalizer(punctuation, true);
+	}
+
+	@Override
+	public String apply(String word) {
+		// Fast path: nothing to change, nothing to allocate
+		if (isNormalized(word, 0, word.length()))
+			return word;
+
+		return normalize(word, 0, word.length());
+	}
+
+	/**
+	 * Normalizes a slice of a text, as an example the current token of a tokenizer, without creating a substring.
+	 *
+	 * @param text text that contains the word
+	 * @param from index of the first character of the word (inclusive)
+	 * @param to   index of the last character of the word (exclusive)
+	 * @return the normalized word
+	 */
+	public String normalize(CharSequence text, int from, int to) {
+		char[] buffer = BUFFER.get();
+		if (buffer.length < to - from) {
+			buffer = new char[Math.max(to - from, buffer.length * 2)];
+			BUFFER.set(buffer);
+		}
+
+		int length = 0;
+		for (int i = from; i < to; i++) {
+			final char c = text.charAt(i);
+
+			if (isPunctuation(c))
+				continue;
+
+			buffer[length] = capitalize && length == 0 ? Character.toUpperCase(c) : Character.toLowerCase(c);
+			length++;
+		}
+
+		return new String(buffer, 0, length);
+	}
+
+	/**
+	 * @return true if this normalizer would not change the given slice
+	 */
+	private boolean isNormalized(CharSequence text, int from, int to) {
+		for (int i = from; i < to; i++) {
+			final char c = text.charAt(i);
+			final char expected = capitalize && i == from ? Character.toUpperCase(c) : Character.toLowerCase(c);
+
+			if (c != expected || isPunctuation(c))
+				return false;
+		}
+		return true;
+	}
+
+	private boolean isPunctuation(char c) {
+		if (c < asciiPunctuation.length)
+			return asciiPunctuation[c];
+		return otherPunctuation.length > 0 && Arrays.binarySearch(otherPunctuation, c) >= 0;
+	}
+}
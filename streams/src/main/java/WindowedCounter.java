@@ -0,0 +1,198 @@
+import java.util.function.UnaryOperator;
+import java.util.stream.Stream;
+
+/**
+ * Project: lambda-tricks
+ * <p>
+ * Counts the words received from many sources that never end, and emits the counts of each time window. Windows can
+ * be <i>tumbling</i> (one window after the other, like every minute) or <i>sliding</i> (windows that overlap, like the
+ * last 5 minutes, every minute).
+ * <p>
+ * The time is divided in buckets as long as the slide of the window. Each bucket has its own counts, and the counts of
+ * the window are kept updated incrementally: when a word arrives it is added to its bucket and to the window, when a
+ * bucket falls outside the window its counts are subtracted from the window. The window is never recomputed from
+ * scratch.
+ * <p>
+ * Time is given by the timestamps of the records, in milliseconds. A record older than the current bucket arrives too
+ * late and is dropped. All the methods are synchronized, so the sources can be fed by different threads.
+ */
+public class WindowedCounter {
+
+	/**
+	 * Receives the counts of each window.
+	 */
+	@FunctionalInterface
+	public interface Listener {
+
+		/**
+		 * @param start  start of the window (inclusive)
+		 * @param end    end of the window (exclusive)
+		 * @param counts counts of the window: this map is updated after the call, copy it to keep it
+		 */
+		void onWindow(long start, long end, ObjectLongHashMap<String> counts);
+	}
+
+	/**
+	 * A source of records. Each source has its own pre-processing of the words, before they are counted.
+	 */
+	public class Source {
+
+		private final UnaryOperator<Stream<String>> preprocessing;
+
+		private Source(UnaryOperator<Stream<String>> preprocessing) {
+			this.preprocessing = preprocessing;
+		}
+
+		/**
+		 * Splits the record in words, pre-processes them, and counts them in the window of the given time. The
+		 * pre-processing runs before taking the lock, so that the sources do not wait for each other while doing it.
+		 *
+		 * @param timestamp time of the record, in milliseconds
+		 * @param record    the text of the record
+		 */
+		public void accept(long timestamp, String record) {
+			final String[] words = preprocessing.apply(WordSpliterator.stream(record, false)).toArray(String[]::new);
+
+			synchronized (WindowedCounter.this) {
+				if (!advanceTo(timestamp)) {
+					dropped++;
+					return;
+				}
+
+				for (String word : words)
+					count(word);
+			}
+		}
+	}
+
+	private final long bucketMillis;
+	private final Listener listener;
+
+	// Ring of buckets: the current bucket is at index (bucket % buckets.length)
+	private final ObjectLongHashMap<String>[] buckets;
+	private final ObjectLongHashMap<String> window = new ObjectLongHashMap<>();
+
+	private long bucket = Long.MIN_VALUE;
+	private long dropped;
+
+	/**
+	 * @param windowMillis length of a window, in milliseconds
+	 * @param slideMillis  time between the start of two windows, in milliseconds: the window length must be a
+	 *                     multiple of it
+	 * @param listener     receiver of the windows
+	 */
+	public WindowedCounter(long windowMillis, long slideMillis, Listener listener) {
+		if (slideMillis <= 0 || windowMillis < slideMillis || windowMillis % slideMillis != 0)
+			throw new IllegalArgumentException(
+					"Window (" + windowMillis + "ms) must be a positive multiple of the slide (" + slideMillis + "ms)"
+			);
+
+		this.bucketMillis = slideMillis;
+		this.listener = listener;
+		this.buckets = newBuckets((int) (windowMillis / slideMillis));
+
+		for (int i = 0; i < buckets.length; i++)
+			buckets[i] = new ObjectLongHashMap<>();
+	}
+
+	@SuppressWarnings("unchecked")
+	private static <K> ObjectLongHashMap<K>[] newBuckets(int length) {
+		// Arrays of generic types cannot be created directly
+		return (ObjectLongHashMap<K>[]) new ObjectLongHashMap<?>[length];
+	}
+
+	/**
+	 * @param windowMillis length of a window, in milliseconds
+	 * @param listener     receiver of the windows
+	 * @return a counter of windows that do not overlap
+	 */
+	public static WindowedCounter tumbling(long windowMillis, Listener listener) {
+		return new WindowedCounter(windowMillis, windowMillis, listener);
+	}
+
+	/**
+	 * @param windowMillis length of a window, in milliseconds
+	 * @param slideMillis  time between the start of two windows, in milliseconds
+	 * @param listener     receiver of the windows
+	 * @return a counter of windows that overlap
+	 */
+	public static WindowedCounter sliding(long windowMillis, long slideMillis, Listener listener) {
+		return new WindowedCounter(windowMillis, slideMillis, listener);
+	}
+
+	/**
+	 * @param preprocessing operations to perform on the words of this source, as an example
+	 *                      <code>words -> words.filter(w -> !w.equals("-"))</code>
+	 * @return a new source for this counter
+	 */
+	public Source source(UnaryOperator<Stream<String>> preprocessing) {
+		return new Source(preprocessing);
+	}
+
+	/**
+	 * Moves the time forward without records, as an example when all the sources are idle. All the windows that end
+	 * before the given time are emitted.
+	 *
+	 * @param timestamp current time, in milliseconds
+	 */
+	public synchronized void advance(long timestamp) {
+		advanceTo(timestamp);
+	}
+
+	/**
+	 * @return the number of records dropped because they arrived too late
+	 */
+	public synchronized long dropped() {
+		return dropped;
+	}
+
+	private void count(String word) {
+		buckets[slot(bucket)].increment(word);
+		window.increment(word);
+	}
+
+	/**
+	 * @return false if the timestamp is before the current bucket
+	 */
+	private boolean advanceTo(long timestamp) {
+		final long target = Math.floorDiv(timestamp, bucketMillis);
+
+		if (bucket == Long.MIN_VALUE) {
+			bucket = target;
+			return true;
+		}
+
+		if (target < bucket)
+			return false;
+
+		while (bucket < target) {
+			// The current bucket is complete: the window that ends with it is complete too
+			if (!window.isEmpty())
+				listener.onWindow((bucket + 1 - buckets.length) * bucketMillis, (bucket + 1) * bucketMillis, window);
+
+			bucket++;
+			expire(buckets[slot(bucket)]);
+
+			// After a long pause all the buckets are empty, and there is nothing left to emit
+			if (window.isEmpty() && bucket < target)
+				bucket = target;
+		}
+
+		return true;
+	}
+
+	/**
+	 * Removes the counts of a bucket that is now outside the window.
+	 */
+	private void expire(ObjectLongHashMap<String> old) {
+		old.forEach((word, count) -> {
+			if (window.increment(word, -count) == 0)
+				window.remove(word);
+		});
+		old.clear();
+	}
+
+	private int slot(long bucket) {
+		return (int) Math.floorMod(bucket, (long) buckets.length);
+	}
+}
@@ -0,0 +1,124 @@
+import java.util.Spliterator;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+/**
+ * Project: lambda-tricks
+ * <p>
+ * A {@link Spliterator} that produces the words of a {@link CharSequence}. Differently from
+ * <code>List.of(text.split(" ")).parallelStream()</code>, the text is not tokenized upfront by a single thread: each
+ * split cuts the remaining characters in two halves at the first whitespace after the midpoint, so every ForkJoin
+ * worker tokenizes its own part of the text.
+ * <p>
+ * Words are separated by one or more whitespaces, as defined by {@link Character#isWhitespace(char)}. The text must
+ * not change while the spliterator is in use.
+ */
+public class WordSpliterator implements Spliterator<String> {
+
+	/**
+	 * Below this number of characters the cost of a split is higher than the work to tokenize.
+	 */
+	public static final int DEFAULT_MIN_SPLIT_SIZE = 1 << 12;
+
+	/**
+	 * Average number of characters of a word, separator included, used to estimate the number of words. It is the
+	 * average of the English language: the estimates are balanced between splits even when it is not accurate.
+	 */
+	private static final int AVERAGE_WORD_LENGTH = 6;
+
+	private final CharSequence text;
+	private final int minSplitSize;
+	private final int end;
+	private int index;
+
+	public WordSpliterator(CharSequence text) {
+		this(text, 0, text.length(), DEFAULT_MIN_SPLIT_SIZE);
+	}
+
+	/**
+	 * @param text         text to tokenize
+	 * @param from         index of the first character (inclusive)
+	 * @param to           index of the last character (exclusive)
+	 * @param minSplitSize minimum number of characters required to split
+	 */
+	public WordSpliterator(CharSequence text, int from, int to, int minSplitSize) {
+		if (from < 0 || to > text.length() || from > to)
+			throw new IndexOutOfBoundsException("Invalid range [" + from + ", " + to + ") for length " + text.length());
+		if (minSplitSize < 2)
+			throw new IllegalArgumentException("Minimum split size must be at least 2: " + minSplitSize);
+
+		this.text = text;
+		this.index = from;
+		this.end = to;
+		this.minSplitSize = minSplitSize;
+	}
+
+	/**
+	 * @param text     text to tokenize
+	 * @param parallel if true the returned stream is parallel
+	 * @return a {@link Stream} of the words of the text
+	 */
+	public static Stream<String> stream(CharSequence text, boolean parallel) {
+		return StreamSupport.stream(new WordSpliterator(text), parallel);
+	}
+
+	@Override
+	public boolean tryAdvance(Consumer<? super String> action) {
+		while (index < end && Character.isWhitespace(text.charAt(index)))
+			index++;
+
+		if (index == end)
+			return false;
+
+		final int start = index;
+		while (index < end && !Character.isWhitespace(text.charAt(index)))
+			index++;
+
+		action.accept(text.subSequence(start, index).toString());
+		return true;
+	}
+
+	@Override
+	public Spliterator<String> trySplit() {
+		final int size = end - index;
+		if (size < minSplitSize)
+			return null;
+
+		// We search for a whitespace after the midpoint, so that no word is cut in two...
+		int split = index + size / 2;
+		while (split < end && !Character.isWhitespace(text.charAt(split)))
+			split++;
+
+		// ...and before the midpoint if the second half is a single word
+		if (split == end) {
+			split = index + size / 2;
+			while (split > index && !Character.isWhitespace(text.charAt(split)))
+				split--;
+
+			if (split == index)
+				return null;
+		}
+
+		final WordSpliterator prefix = new WordSpliterator(text, index, split, minSplitSize);
+		index = split;
+		return prefix;
+	}
+
+	/**
+	 * The exact number of words is known only after the tokenization, so this spliterator is not
+	 * {@link Spliterator#SIZED}. The estimate is proportional to the number of characters, that is exact and always
+	 * divided in halves between splits, so the work is still balanced.
+	 *
+	 * @return the estimated number of words left
+	 */
+	@Override
+	public long estimateSize() {
+		return (end - index + AVERAGE_WORD_LENGTH - 1) / AVERAGE_WORD_LENGTH;
+	}
+
+	@Override
+	public int characteristics() {
+		return ORDERED | NONNULL | IMMUTABLE;
+	}
+}
@@ -0,0 +1,42 @@
+/**
+ * Project: lambda-tricks
+ * <p>
+ * This is just a support class for {@link Metrics}: it chooses the implementation of the loops over
+ * <code>double[]</code>. This is the Java 17 version of the class, placed in the multi-release jar: when the
+ * <code>jdk.incubator.vector</code> module is available (run with <code>--add-modules jdk.incubator.vector</code>) it
+ * uses the {@link VectorMetricsKernel}, otherwise it falls back to the {@link ScalarMetricsKernel}. The vector path
+ * can be disabled with <code>-Dmetrics.scalar=true</code>.
+ */
+class MetricsKernel {
+
+	private static final boolean VECTOR = !Boolean.getBoolean("metrics.scalar")
+			&& ModuleLayer.boot().findModule("jdk.incubator.vector").isPresent();
+
+	private MetricsKernel() {
+	}
+
+	/**
+	 * @return the name of the implementation in use
+	 */
+	static String name() {
+		return VECTOR ? "vector" : "scalar";
+	}
+
+	static double sumSquaredDiff(double[] a, double[] b, int from, int to) {
+		return VECTOR
+				? VectorMetricsKernel.sumSquaredDiff(a, b, from, to)
+				: ScalarMetricsKernel.sumSquaredDiff(a, b, from, to);
+	}
+
+	static double sumAbsDiff(double[] a, double[] b, int from, int to) {
+		return VECTOR
+				? VectorMetricsKernel.sumAbsDiff(a, b, from, to)
+				: ScalarMetricsKernel.sumAbsDiff(a, b, from, to);
+	}
+
+	static double dot(double[] a, double[] b, int from, int to) {
+		return VECTOR
+				? VectorMetricsKernel.dot(a, b, from, to)
+				: ScalarMetricsKernel.dot(a, b, from, to);
+	}
+}
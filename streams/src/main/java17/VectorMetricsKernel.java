@@ -0,0 +1,63 @@
+import jdk.incubator.vector.DoubleVector;
+import jdk.incubator.vector.VectorOperators;
+import jdk.incubator.vector.VectorSpecies;
+
+/**
+ * Project: lambda-tricks
+ * <p>
+ * This is just a support class for {@link Metrics}: the loops over <code>double[]</code> written with the Vector API,
+ * so that each iteration processes as many elements as the widest SIMD register of the CPU can hold. The elements
+ * that do not fill a whole vector at the end of the range are processed one by one.
+ */
+class VectorMetricsKernel {
+
+	private static final VectorSpecies<Double> SPECIES = DoubleVector.SPECIES_PREFERRED;
+
+	private VectorMetricsKernel() {
+	}
+
+	static double sumSquaredDiff(double[] a, double[] b, int from, int to) {
+		DoubleVector acc = DoubleVector.zero(SPECIES);
+
+		int i = from;
+		for (final int bound = from + SPECIES.loopBound(to - from); i < bound; i += SPECIES.length()) {
+			final DoubleVector d = DoubleVector.fromArray(SPECIES, a, i).sub(DoubleVector.fromArray(SPECIES, b, i));
+			acc = d.fma(d, acc);
+		}
+
+		double sum = acc.reduceLanes(VectorOperators.ADD);
+		for (; i < to; i++) {
+			final double d = a[i] - b[i];
+			sum += d * d;
+		}
+		return sum;
+	}
+
+	static double sumAbsDiff(double[] a, double[] b, int from, int to) {
+		DoubleVector acc = DoubleVector.zero(SPECIES);
+
+		int i = from;
+		for (final int bound = from + SPECIES.loopBound(to - from); i < bound; i += SPECIES.length()) {
+			final DoubleVector d = DoubleVector.fromArray(SPECIES, a, i).sub(DoubleVector.fromArray(SPECIES, b, i));
+			acc = acc.add(d.abs());
+		}
+
+		double sum = acc.reduceLanes(VectorOperators.ADD);
+		for (; i < to; i++)
+			sum += Math.abs(a[i] - b[i]);
+		return sum;
+	}
+
+	static double dot(double[] a, double[] b, int from, int to) {
+		DoubleVector acc = DoubleVector.zero(SPECIES);
+
+		int i = from;
+		for (final int bound = from + SPECIES.loopBound(to - from); i < bound; i += SPECIES.length())
+			acc = DoubleVector.fromArray(SPECIES, a, i).fma(DoubleVector.fromArray(SPECIES, b, i), acc);
+
+		double sum = acc.reduceLanes(VectorOperators.ADD);
+		for (; i < to; i++)
+			sum += a[i] * b[i];
+		return sum;
+	}
+}